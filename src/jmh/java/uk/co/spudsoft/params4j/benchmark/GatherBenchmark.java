@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.co.spudsoft.params4j.FileType;
+import uk.co.spudsoft.params4j.Params4J;
+import uk.co.spudsoft.params4j.Params4JFactory;
+import uk.co.spudsoft.params4j.impl.CommandLineArgumentsGatherer;
+import uk.co.spudsoft.params4j.impl.DirGatherer;
+import uk.co.spudsoft.params4j.impl.EnvironmentVariablesGatherer;
+import uk.co.spudsoft.params4j.impl.SystemPropertiesGatherer;
+
+/**
+ * Compare the cost of gathering parameters from six sources by updating P once per gatherer with the cost of merging trees and binding once.
+ *
+ * The properties are spread evenly across three files (JSON, YAML and properties), environment variables, system properties and command line arguments.
+ *
+ * @author jtalbut
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=src/jmh/resources/logback-jmh.xml")
+public class GatherBenchmark {
+
+  private static final int SECTION_SIZE = 100;
+
+  /**
+   * Parameters class for the benchmark.
+   */
+  public static class Parameters {
+
+    private Map<String, Map<String, String>> sections;
+
+    /**
+     * Get the sections.
+     * @return the sections.
+     */
+    public Map<String, Map<String, String>> getSections() {
+      return sections;
+    }
+
+    /**
+     * Set the sections.
+     * @param sections the sections.
+     */
+    public void setSections(Map<String, Map<String, String>> sections) {
+      this.sections = sections;
+    }
+
+  }
+
+  /**
+   * The total number of properties across all six sources.
+   */
+  @Param({"1000", "50000"})
+  public int properties;
+
+  private Path dir;
+  private Params4J<Parameters> sequential;
+  private Params4J<Parameters> tree;
+
+  /**
+   * Create the sources.
+   * @throws IOException if the files cannot be written.
+   */
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("params4j-benchmark");
+    int perSource = properties / 6;
+
+    try (Writer json = Files.newBufferedWriter(dir.resolve("a.json"), StandardCharsets.UTF_8);
+         Writer yaml = Files.newBufferedWriter(dir.resolve("b.yaml"), StandardCharsets.UTF_8);
+         Writer props = Files.newBufferedWriter(dir.resolve("c.properties"), StandardCharsets.UTF_8)) {
+      json.write("{\"sections\":{");
+      yaml.write("sections:\n");
+      String lastSection = null;
+      for (int i = 0; i < perSource; ++i) {
+        String section = "json" + (i / SECTION_SIZE);
+        if (!section.equals(lastSection)) {
+          json.write(lastSection == null ? "" : "},");
+          json.write("\"" + section + "\":{");
+          yaml.write("  yaml" + (i / SECTION_SIZE) + ":\n");
+          lastSection = section;
+        } else {
+          json.write(",");
+        }
+        json.write("\"key" + i + "\":\"value" + i + "\"");
+        yaml.write("    key" + i + ": value" + i + "\n");
+        props.write("sections.props" + (i / SECTION_SIZE) + ".key" + i + " = value" + i + "\n");
+      }
+      json.write(lastSection == null ? "}}" : "}}}");
+    }
+
+    Map<String, String> env = new HashMap<>();
+    Properties sysProps = new Properties();
+    List<String> args = new ArrayList<>();
+    for (int i = 0; i < perSource; ++i) {
+      env.put("BENCH_SECTIONS_ENV" + (i / SECTION_SIZE) + "_KEY" + i, "value" + i);
+      sysProps.put("bench.sections.sys" + (i / SECTION_SIZE) + ".key" + i, "value" + i);
+      args.add("sections.args" + (i / SECTION_SIZE) + ".key" + i + "=value" + i);
+    }
+
+    sequential = factory(env, sysProps, args).create();
+    tree = factory(env, sysProps, args).withTreeGathering(true).create();
+  }
+
+  private Params4JFactory<Parameters> factory(Map<String, String> env, Properties sysProps, List<String> args) {
+    return Params4J.<Parameters>factory()
+            .withConstructor(() -> new Parameters())
+            .withGatherer(new DirGatherer<>(dir.toFile(), FileType.Json))
+            .withGatherer(new DirGatherer<>(dir.toFile(), FileType.Yaml))
+            .withGatherer(new DirGatherer<>(dir.toFile(), FileType.Properties))
+            .withGatherer(new EnvironmentVariablesGatherer<>(env, "bench", true))
+            .withGatherer(new SystemPropertiesGatherer<>(sysProps, "bench"))
+            .withGatherer(new CommandLineArgumentsGatherer<>(args.toArray(String[]::new), null));
+  }
+
+  /**
+   * Remove the temporary files.
+   * @throws IOException if the files cannot be removed.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(dir)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Gather by updating P once for each gatherer.
+   * @return the gathered parameters.
+   */
+  @Benchmark
+  public Parameters sequentialBinding() {
+    return sequential.gatherParameters();
+  }
+
+  /**
+   * Gather by merging overlays and binding P once.
+   * @return the gathered parameters.
+   */
+  @Benchmark
+  public Parameters treeBinding() {
+    return tree.gatherParameters();
+  }
+
+}
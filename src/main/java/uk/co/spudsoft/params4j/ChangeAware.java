@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j;
+
+import java.io.IOException;
+
+/**
+ * Optional interface for a {@link OverlayGatherer} that can cheaply report whether its inputs have changed.
+ * <P>
+ * When tree gathering is in use Params4J keeps the overlay produced by each gatherer along with the fingerprint that was taken before it was gathered.
+ * On subsequent gathers the fingerprint is taken again and, if it is equal to the previous one, the previous overlay is reused without calling the gatherer.
+ * <P>
+ * The fingerprint must be much cheaper to calculate than the overlay (file attributes rather than file contents, for example).
+ * It must change whenever the overlay might change, it is better to report a change that has not happened than to miss one.
+ *
+ * @author jtalbut
+ */
+public interface ChangeAware {
+
+  /**
+   * Get a value that will be equal to the previous value if nothing that affects the overlay has changed.
+   *
+   * @return A value that can be compared (using equals) with the value from a previous call, or null if the gatherer must be run.
+   * @throws IOException if something goes wrong, which will cause the gatherer to be run.
+   */
+  Object getFingerprint() throws IOException;
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Details of a change to the parameters, as delivered to {@link Params4J#notifyOfConfigChanges(java.util.function.Consumer)}.
+ * <P>
+ * The changed paths are <a href="https://datatracker.ietf.org/doc/html/rfc6901">JSON pointers</a> into the JSON representation of the parameters object,
+ * for example "/child/password" or "/list/2".
+ * Each pointer identifies the deepest value that has been added, removed or altered.
+ * If the entire object has changed (which can only happen when there was no previous value) the single pointer "" is reported.
+ * 
+ * @author jtalbut
+ * 
+ * @param <P> The type of the parameters object.
+ */
+public final class ConfigChange<P> {
+  
+  private final P previous;
+  private final P current;
+  private final List<String> changedPaths;
+
+  /**
+   * Constructor.
+   * @param previous The parameters object from the previous gather, may be null.
+   * @param current The newly gathered parameters object.
+   * @param changedPaths The JSON pointers of the values that have changed.
+   */
+  public ConfigChange(P previous, P current, List<String> changedPaths) {
+    this.previous = previous;
+    this.current = current;
+    this.changedPaths = Collections.unmodifiableList(changedPaths);
+  }
+
+  /**
+   * Get the parameters object from the previous gather.
+   * @return the parameters object from the previous gather, may be null if there was no previous gather.
+   */
+  public P getPrevious() {
+    return previous;
+  }
+
+  /**
+   * Get the newly gathered parameters object.
+   * @return the newly gathered parameters object.
+   */
+  public P getCurrent() {
+    return current;
+  }
+
+  /**
+   * Get the JSON pointers of the values that have changed.
+   * @return the JSON pointers of the values that have changed.
+   */
+  public List<String> getChangedPaths() {
+    return changedPaths;
+  }
+  
+  /**
+   * Return true if the value identified by the JSON pointer, or anything within it, has changed.
+   * <P>
+   * For example, a change to "/child/password" affects "/child/password", "/child" and "".
+   * A change to "/child" (because it has been added or removed) also affects "/child/password".
+   * 
+   * @param pointer A JSON pointer, such as "/child".
+   * @return true if the value identified by the JSON pointer, or anything within it, has changed.
+   */
+  public boolean affects(String pointer) {
+    for (String path : changedPaths) {
+      if (isWithin(path, pointer) || isWithin(pointer, path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+  
+  private static boolean isWithin(String path, String pointer) {
+    return path.equals(pointer) 
+            || (path.startsWith(pointer) && path.charAt(pointer.length()) == '/');
+  }
+
+  @Override
+  public String toString() {
+    return "ConfigChange" + changedPaths;
+  }
+  
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The rules governing how long Params4J waits after a file change before reloading the parameters.
+ * <P>
+ * Changes to files often come in multiple operations, so after a change Params4J waits until no further changes have been seen for the quiet period.
+ * To prevent a continuous stream of changes from postponing the reload forever, the reload will happen no later than the maximum wait after the first change.
+ * <P>
+ * When the policy is adaptive the quiet period is extended (but never beyond the maximum wait) if changes are seen to arrive further apart than the quiet period,
+ * including changes that arrive shortly after a reload (which indicate that a batch was split).
+ * This allows a short quiet period to be configured for quick reloads without splitting batches from slower tools.
+ * 
+ * @author jtalbut
+ */
+public final class DebouncePolicy {
+  
+  /**
+   * The default policy: a quiet period of two seconds, a maximum wait of thirty seconds and no adaption.
+   */
+  public static final DebouncePolicy DEFAULT = builder().build();
+  
+  private final Duration quietPeriod;
+  private final Duration maxWait;
+  private final boolean adaptive;
+
+  /**
+   * Builder.
+   */
+  public static class Builder {
+
+    private Duration quietPeriod = Duration.ofSeconds(2);
+    private Duration maxWait = Duration.ofSeconds(30);
+    private boolean adaptive;
+  
+    private Builder() {
+    }
+
+    /**
+     * Set the minimum time for which no changes must be seen before reloading.
+     * @param value the minimum time for which no changes must be seen before reloading.
+     * @return this
+     */
+    public Builder quietPeriod(final Duration value) {
+      this.quietPeriod = value;
+      return this;
+    }
+
+    /**
+     * Set the maximum time to wait after the first change before reloading.
+     * @param value the maximum time to wait after the first change before reloading.
+     * @return this
+     */
+    public Builder maxWait(final Duration value) {
+      this.maxWait = value;
+      return this;
+    }
+
+    /**
+     * Set whether the quiet period should be extended based on the observed gaps between changes.
+     * @param value whether the quiet period should be extended based on the observed gaps between changes.
+     * @return this
+     */
+    public Builder adaptive(final boolean value) {
+      this.adaptive = value;
+      return this;
+    }
+
+    /**
+     * Construct a new {@link DebouncePolicy} instance.
+     * @return a new {@link DebouncePolicy} instance.
+     * @throws IllegalArgumentException if the quiet period is not positive or the maximum wait is shorter than the quiet period.
+     */
+    public DebouncePolicy build() {
+      return new DebouncePolicy(quietPeriod, maxWait, adaptive);
+    }
+  }
+
+  /**
+   * Construct a {@link Builder} instance.
+   * @return a newly constructed {@link Builder} instance.
+   */
+  public static DebouncePolicy.Builder builder() {
+    return new DebouncePolicy.Builder();
+  }
+
+  private DebouncePolicy(Duration quietPeriod, Duration maxWait, boolean adaptive) {
+    Objects.requireNonNull(quietPeriod, "The quiet period must be set");
+    Objects.requireNonNull(maxWait, "The maximum wait must be set");
+    if (quietPeriod.isNegative() || quietPeriod.isZero()) {
+      throw new IllegalArgumentException("The quiet period must be positive");
+    }
+    if (maxWait.compareTo(quietPeriod) < 0) {
+      throw new IllegalArgumentException("The maximum wait must not be shorter than the quiet period");
+    }
+    this.quietPeriod = quietPeriod;
+    this.maxWait = maxWait;
+    this.adaptive = adaptive;
+  }
+
+  /**
+   * Get the minimum time for which no changes must be seen before reloading.
+   * @return the minimum time for which no changes must be seen before reloading.
+   */
+  public Duration getQuietPeriod() {
+    return quietPeriod;
+  }
+
+  /**
+   * Get the maximum time to wait after the first change before reloading.
+   * @return the maximum time to wait after the first change before reloading.
+   */
+  public Duration getMaxWait() {
+    return maxWait;
+  }
+
+  /**
+   * Get whether the quiet period should be extended based on the observed gaps between changes.
+   * @return whether the quiet period should be extended based on the observed gaps between changes.
+   */
+  public boolean isAdaptive() {
+    return adaptive;
+  }
+
+  @Override
+  public String toString() {
+    return "DebouncePolicy{quietPeriod=" + quietPeriod + ", maxWait=" + maxWait + ", adaptive=" + adaptive + '}';
+  }
+  
+}
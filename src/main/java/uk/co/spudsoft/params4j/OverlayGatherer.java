@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * A {@link ParameterGatherer} that can also produce its parameters as a JSON tree (an overlay) without reference to any instance of P.
+ * <P>
+ * Overlays are independent of each other, which allows Params4J to run the gatherers concurrently and then merge the overlays
+ * in the order that the gatherers were registered, with later overlays taking precedence.
+ * The merge follows the same rules as Jackson merging (objects are merged, arrays are appended to, everything else is replaced).
+ * <P>
+ * All the built-in gatherers implement this interface.
+ *
+ * @author jtalbut
+ *
+ * @param <P> The type of the parameters object.
+ */
+public interface OverlayGatherer<P> extends ParameterGatherer<P> {
+
+  /**
+   * Collate the parameters that this gatherer understands into a JSON tree.
+   * <P>
+   * The returned ObjectNode belongs to the caller, but it must not be modified by the caller.
+   * This permits implementations to return the same (cached) instance from multiple calls.
+   *
+   * @param spi Instance of Params4JSpi for accessing common functionality.
+   * @return A JSON tree containing the parameters found by this gatherer, never null.
+   * @throws IOException if something goes wrong.
+   */
+  ObjectNode gatherOverlay(Params4JSpi spi) throws IOException;
+
+  /**
+   * Collate the parameters that this gatherer understands into a JSON tree, given that only some of the paths that it watches have changed.
+   * <P>
+   * This is called when a watched path registered by this gatherer (via {@link Params4JSpi#watch(java.nio.file.Path)}) changes
+   * and there is a previous overlay from this gatherer.
+   * Implementations may use the previous overlay to avoid re-reading files that have not changed.
+   * The previous overlay must not be modified.
+   * <P>
+   * The default implementation ignores the previous overlay and calls {@link #gatherOverlay(uk.co.spudsoft.params4j.Params4JSpi)}.
+   *
+   * @param spi Instance of Params4JSpi for accessing common functionality.
+   * @param previous The overlay most recently returned by this gatherer.
+   * @param changed The paths that have changed, each of which is either a watched directory or an entry in a watched directory.
+   * @return A JSON tree containing the parameters found by this gatherer, never null.
+   * @throws IOException if something goes wrong.
+   */
+  default ObjectNode gatherOverlay(Params4JSpi spi, ObjectNode previous, Set<Path> changed) throws IOException {
+    return gatherOverlay(spi);
+  }
+
+}
@@ -4,6 +4,7 @@
  */
 package uk.co.spudsoft.params4j;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
@@ -11,12 +12,14 @@ import uk.co.spudsoft.params4j.impl.Params4JFactoryImpl;
 
 /**
  * Core class for Params4J.
+ * <P>
+ * Instances that are notifying of changes hold resources (watches on directories), so instances that are discarded before the end of the process should be closed.
  * 
  * @author jtalbut
  * 
  * @param <P> The type of the parameters object.
  */
-public interface Params4J<P> {
+public interface Params4J<P> extends AutoCloseable {
   
   /**
    * Factory method for creating a Params4J builder.
@@ -29,20 +32,98 @@ public interface Params4J<P> {
   
   /**
    * Gather parameters from all the configured ParameterGatherers and return a single P object.
+   * <P>
+   * Concurrent calls share a single gather, so callers that overlap may be given the same P object.
+   * 
    * @return A P object filled with values found by all the configured ParameterGatherers.
    */
   P gatherParameters();
   
+  /**
+   * Get the most recently gathered parameters, without gathering them again.
+   * <P>
+   * The parameters are published atomically each time they are gathered (either by a call to {@link #gatherParameters()} or by a reload after a change),
+   * so this method is cheap enough to call on every request.
+   * If a gather produces parameters with the same content as the current parameters the current object is retained.
+   * <P>
+   * The returned object is shared and must not be modified.
+   * 
+   * @return The most recently gathered parameters, or null if parameters have not yet been gathered.
+   */
+  P current();
+  
+  /**
+   * Get the version of the {@link #current() current} parameters.
+   * <P>
+   * The version starts at 1 for the first gather and is incremented each time the content of the parameters changes,
+   * so callers can detect changes by comparing versions.
+   * 
+   * @return The version of the current parameters, or 0 if parameters have not yet been gathered.
+   */
+  long version();
+  
+  /**
+   * Get the time at which the {@link #current() current} parameters were gathered.
+   * 
+   * @return The time at which the current parameters were gathered, or null if parameters have not yet been gathered.
+   */
+  Instant lastUpdated();
+  
+  /**
+   * Get the state of the reloading of parameters in response to file changes.
+   * 
+   * @return The state of the reloading of parameters in response to file changes.
+   * @see Params4JFactory#withReloadPolicy(uk.co.spudsoft.params4j.ReloadPolicy)
+   */
+  ReloadStatus getReloadStatus();
+  
   /**
    * Start the monitor for any dynamic changes to parameters whilst the system is running.
    * 
    * Note that this may be called when no actual change has been made to the P object.
+   * <P>
+   * Handlers are called asynchronously, see {@link Params4JFactory#withNotificationExecutor(java.util.concurrent.Executor)}.
    * 
    * @param handler Callback that will be called with a newly created P object when things might have changed.
    * @return True if any of the configured ParameterGatherers support notifications.
    */
   boolean notifyOfChanges(Consumer<P> handler);
   
+  /**
+   * Start the monitor for any dynamic changes to parameters whilst the system is running, with details of what has changed.
+   * <P>
+   * Unlike {@link #notifyOfChanges(java.util.function.Consumer)} the handler is only called when the gathered parameters differ from the previous gather,
+   * and it is given the previous and current parameters objects along with the JSON pointers of the values that have changed.
+   * This permits components to reconfigure only what has been affected.
+   * <P>
+   * This may be used alongside {@link #notifyOfChanges(java.util.function.Consumer)}, both handlers will be called.
+   * 
+   * @param handler Callback that will be called with details of the change when the parameters have changed.
+   * @return True if any of the configured ParameterGatherers support notifications.
+   */
+  boolean notifyOfConfigChanges(Consumer<ConfigChange<P>> handler);
+  
+  /**
+   * Start the monitor for any dynamic changes to parameters whilst the system is running, and subscribe to changes to a single section of the parameters.
+   * <P>
+   * The section is identified by a <a href="https://datatracker.ietf.org/doc/html/rfc6901">JSON pointer</a> into the JSON representation of the parameters,
+   * for example "/database/primary".
+   * Property names are matched without regard to case if there is no exact match.
+   * <P>
+   * The listener is only called when the content of the section differs from the previous gather.
+   * It is given a newly created object bound from the section, or null if the section has been removed.
+   * <P>
+   * Any number of listeners may be subscribed, to the same or different sections.
+   * 
+   * @param <T> The type of the section.
+   * @param pointer JSON pointer identifying the section.
+   * @param type The class that the section will be bound to.
+   * @param listener Callback that will be called with the newly bound section when the section has changed.
+   * @return True if any of the configured ParameterGatherers support notifications.
+   * @throws IllegalArgumentException if the pointer is not a valid JSON pointer.
+   */
+  <T> boolean subscribe(String pointer, Class<T> type, Consumer<T> listener);
+  
   /**
    * Return a set of documentation for the properties that can be set in a Parameters class.The documentation values are determined in the following order:
    * <ol>
@@ -69,4 +150,14 @@ public interface Params4J<P> {
    */
   List<ConfigurationProperty> getDocumentation(P defaultInstance, String prefix, List<Pattern> terminalClasses, List<Pattern> undocumentedClasses);
   
+  /**
+   * Stop monitoring for changes and release the watches held by this instance.
+   * <P>
+   * No handlers or subscribers will be called after this method returns, other than any notification that is already being delivered.
+   * Parameters may still be gathered after the instance has been closed, but no further changes will be monitored.
+   * Calling this method more than once has no effect.
+   */
+  @Override
+  void close();
+  
 }
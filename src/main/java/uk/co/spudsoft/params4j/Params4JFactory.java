@@ -10,7 +10,11 @@ import com.fasterxml.jackson.dataformat.javaprop.JavaPropsMapper;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 /**
  * Factory class for creating Params4J instances.
@@ -120,6 +124,144 @@ public interface Params4JFactory<P> {
    */
   Params4JFactory<P> withYamlMapper(ObjectMapper yamlMapper);
   
+  /**
+   * Configure Params4J to gather parameters as JSON trees and bind them to the parameters object once.
+   * <P>
+   * Calling this method is optional, if not called each gatherer updates the parameters object in turn.
+   * <P>
+   * When tree gathering is enabled each {@link uk.co.spudsoft.params4j.OverlayGatherer OverlayGatherer} produces its own overlay,
+   * the overlays are merged (using the same rules as Jackson merging) in the order that the gatherers were added and the result is bound to the parameters object.
+   * This avoids running the full Jackson deserializer for every gatherer.
+   * Gatherers that do not implement {@link uk.co.spudsoft.params4j.OverlayGatherer OverlayGatherer} are run in sequence at their place in the order.
+   * <P>
+   * The merged tree binds property names without regard to case, for all sources.
+   * <P>
+   * Gatherers that also implement {@link uk.co.spudsoft.params4j.ChangeAware ChangeAware} are only run when their fingerprint changes,
+   * otherwise the overlay that they produced previously is reused.
+   * <P>
+   * When every gatherer produces an overlay the {@link uk.co.spudsoft.params4j.Params4J#version() version} is based on the merged overlays,
+   * so a change to a source is a new version even if it binds to the same parameters.
+   *
+   * @param treeGathering If true, overlays will be merged and bound to the parameters object once.
+   * @return this.
+   */
+  Params4JFactory<P> withTreeGathering(boolean treeGathering);
+  
+  /**
+   * Set an executor that will be used to run gatherers concurrently.
+   * <P>
+   * Calling this method is optional, if not called gatherers are run one after another on the thread that requests the parameters.
+   * <P>
+   * When an executor is set each {@link uk.co.spudsoft.params4j.OverlayGatherer OverlayGatherer} produces its own overlay on the executor,
+   * the overlays are then merged in the order that the gatherers were added and the result is bound to the parameters object.
+   * This means that the time taken to gather parameters is governed by the slowest gatherer, rather than the sum of all of them.
+   * Gatherers that do not implement {@link uk.co.spudsoft.params4j.OverlayGatherer OverlayGatherer} are run in sequence at their place in the order.
+   * <P>
+   * Setting an executor implies {@link #withTreeGathering(boolean) tree gathering}.
+   * 
+   * @param executor The executor to use for running gatherers.
+   * @return this.
+   */
+  Params4JFactory<P> withGatherExecutor(Executor executor);
+  
+  /**
+   * Configure Params4J to retain only a fingerprint of the most recently gathered parameters, rather than the entire tree of values.
+   * <P>
+   * Calling this method is optional, if not called the tree of values is retained whenever it is built.
+   * When {@link #withTreeGathering(boolean) tree gathering} and every gatherer produces an overlay the tree is only built if there are
+   * {@link uk.co.spudsoft.params4j.ConfigChange ConfigChange} handlers or subscriptions.
+   * <P>
+   * Changes are detected by comparing 128 bit fingerprints of the gathered trees in either case.
+   * Retaining only the fingerprint reduces the memory used, but means that the previous tree has to be recreated from the previous parameters
+   * in order to identify what has changed for {@link uk.co.spudsoft.params4j.ConfigChange ConfigChange} notifications and subscriptions.
+   * <P>
+   * Only the tree of the parameters is discarded.
+   * When {@link #withTreeGathering(boolean) tree gathering} the overlays from {@link uk.co.spudsoft.params4j.ChangeAware ChangeAware} gatherers
+   * are still cached so that they can be reused when their sources have not changed, so the saving is smaller when most gatherers are ChangeAware.
+   * 
+   * @param fingerprintOnly If true, only a fingerprint of the most recently gathered parameters will be retained.
+   * @return this.
+   */
+  Params4JFactory<P> withFingerprintOnly(boolean fingerprintOnly);
+  
+  /**
+   * Set the rules governing how long Params4J waits after a file change before reloading the parameters.
+   * <P>
+   * Calling this method is optional, if not called {@link DebouncePolicy#DEFAULT} is used.
+   * 
+   * @param debouncePolicy The rules governing how long Params4J waits after a file change before reloading the parameters.
+   * @return this.
+   */
+  Params4JFactory<P> withDebouncePolicy(DebouncePolicy debouncePolicy);
+  
+  /**
+   * Set the mechanism used to detect changes to the directories watched by gatherers.
+   * <P>
+   * Calling this method is optional, if not called {@link WatchMode#Auto} is used.
+   * 
+   * @param watchMode The mechanism used to detect changes to the directories watched by gatherers.
+   * @return this.
+   */
+  Params4JFactory<P> withWatchMode(WatchMode watchMode);
+  
+  /**
+   * Set the intervals between polls of directories that are being polled for changes.
+   * <P>
+   * Calling this method is optional, if not called polls will be made at least every
+   * {@link uk.co.spudsoft.params4j.impl.FileWatcher#DEFAULT_MAX_POLL_INTERVAL 30s},
+   * and every {@link uk.co.spudsoft.params4j.impl.FileWatcher#DEFAULT_POLL_INTERVAL 2s} after a change has been seen.
+   * <P>
+   * Directories are only polled if {@link WatchMode#Polling} is selected, or if {@link WatchMode#Auto} is selected and the directory cannot be watched natively.
+   * 
+   * @param pollInterval The interval between polls after a change has been seen.
+   * @param maxPollInterval The longest interval between polls, the interval grows towards this while nothing changes.
+   * @return this.
+   */
+  Params4JFactory<P> withPollInterval(Duration pollInterval, Duration maxPollInterval);
+  
+  /**
+   * Set an executor on which change handlers and subscribers will be called.
+   * <P>
+   * Calling this method is optional, if not called each notification is delivered on a new virtual thread (on JDK 21+, a pool of daemon threads on earlier JDKs).
+   * <P>
+   * Each handler and subscriber is called independently, so one that is slow or fails does not delay any other.
+   * A handler is never called concurrently with itself, if the parameters change again whilst it is running it is called once more
+   * with only the latest value when it returns (for {@link Params4J#notifyOfConfigChanges(java.util.function.Consumer) config change handlers}
+   * the paths of the intermediate changes are included).
+   * 
+   * @param executor The executor on which change handlers and subscribers will be called.
+   * @return this.
+   */
+  Params4JFactory<P> withNotificationExecutor(Executor executor);
+  
+  /**
+   * Set the maximum number of directories that may be registered with the WatchService by all the Params4J instances in the JVM.
+   * <P>
+   * Calling this method is optional, if not called there is no limit.
+   * <P>
+   * On Linux each directory registered with the WatchService consumes an inotify watch, and the number of these is limited per user (fs.inotify.max_user_watches).
+   * A deep {@link uk.co.spudsoft.params4j.impl.SecretsGatherer SecretsGatherer} hierarchy can consume a lot of them.
+   * Because the limit is not specific to one instance this instance will not register a directory once the number registered by all instances has reached the budget,
+   * directories that are already registered by another instance are shared and do not use any more of the budget.
+   * The current usage is reported by {@link uk.co.spudsoft.params4j.impl.FileWatcher#getTotalWatchCount()}.
+   * Once the budget has been used further directories will be polled (unless {@link WatchMode#Native} has been selected, in which case they will not be watched at all).
+   * Directories that are deleted release their share of the budget.
+   * 
+   * @param watchBudget The maximum number of directories that Params4J will register with the WatchService.
+   * @return this.
+   */
+  Params4JFactory<P> withWatchBudget(int watchBudget);
+  
+  /**
+   * Set the rules governing how often Params4J reloads the parameters in response to file changes, and what happens when a reload reports errors.
+   * <P>
+   * Calling this method is optional, if not called {@link ReloadPolicy#DEFAULT} is used.
+   * 
+   * @param reloadPolicy The rules governing how often Params4J reloads the parameters in response to file changes.
+   * @return this.
+   */
+  Params4JFactory<P> withReloadPolicy(ReloadPolicy reloadPolicy);
+  
   /**
    * Convenience method for adding a {@link uk.co.spudsoft.params4j.impl.ResourceGatherer ResourceGatherer} to the Params4J instance.
    * <P>
@@ -135,6 +277,27 @@ public interface Params4JFactory<P> {
    * @return this.
    */
   Params4JFactory<P> withResourceGatherer(String resource, FileType fileType);
+  
+  /**
+   * Convenience method for adding a {@link uk.co.spudsoft.params4j.impl.ResourceGatherer ResourceGatherer} that uses a specific ClassLoader to the Params4J instance.
+   * <P>
+   * The resource is read and parsed once, the first time that it is gathered.
+   * If allCopies is true every copy of the resource found by {@link ClassLoader#getResources(java.lang.String)} is merged,
+   * with the copy that would be found by {@link ClassLoader#getResource(java.lang.String)} taking precedence.
+   * <P>
+   * Equivalent to
+   * <pre>
+   * return withGatherer(new ResourceGatherer&lt;>(classLoader, resource, fileType, allCopies, shared));
+   * </pre>
+   * 
+   * @param classLoader The ClassLoader to load the resource with, if null the ClassLoader that loaded Params4J is used.
+   * @param resource The resource to be gathered, as passed to {@link ClassLoader#getResource(java.lang.String)}.
+   * @param fileType The type of file pointed to by the resource.
+   * @param allCopies If true every copy of the resource found by the ClassLoader will be loaded and merged.
+   * @param shared If true the parsed resource will be shared with other Params4J instances that load the same resource with shared set.
+   * @return this.
+   */
+  Params4JFactory<P> withResourceGatherer(ClassLoader classLoader, String resource, FileType fileType, boolean allCopies, boolean shared);
 
   /**
    * Convenience method for adding a {@link uk.co.spudsoft.params4j.impl.DirGatherer DirGatherer} to the Params4J instance.
@@ -190,6 +353,31 @@ public interface Params4JFactory<P> {
    */
   Params4JFactory<P> withEnvironmentVariablesGatherer(String namePrefix, boolean toLowerCase);
   
+  /**
+   * Convenience method for adding a {@link uk.co.spudsoft.params4j.impl.SchemaEnvironmentVariablesGatherer SchemaEnvironmentVariablesGatherer} to the Params4J instance.
+   * <P>
+   * The names of environment variables are looked up in a table built from the documented properties of the parameters object
+   * (see {@link Params4J#getDocumentation(java.lang.Object, java.lang.String, java.util.List, java.util.List)}),
+   * rather than being rewritten to form property names.
+   * The environment variable for a property is the one output by
+   * {@link ConfigurationProperty#appendEnv(java.lang.StringBuilder, int, java.lang.String, java.lang.String, java.lang.String) appendEnv},
+   * with list indexes as an additional segment ("PREFIX_LIST_2" sets "list[2]").
+   * <P>
+   * If the namePrefix is supplied (is not null or empty) only environment variables that begin with the prefix followed by '_' will be considered,
+   * and any of those that do not match a known property will be logged as a warning.
+   * <P>
+   * Equivalent to
+   * <pre>
+   * return withGatherer(new SchemaEnvironmentVariablesGatherer&lt;>(namePrefix, terminalClasses, undocumentedClasses));
+   * </pre>
+   * 
+   * @param namePrefix The prefix that can be used to filter environment variables.
+   * @param terminalClasses List of regular expressions used to identify properties that are of terminal types, as passed to getDocumentation, may be null.
+   * @param undocumentedClasses List of regular expressions used to identify properties that are of undocumented types, as passed to getDocumentation, may be null.
+   * @return this.
+   */
+  Params4JFactory<P> withSchemaEnvironmentVariablesGatherer(String namePrefix, List<Pattern> terminalClasses, List<Pattern> undocumentedClasses);
+  
 
   /**
    * Convenience method for adding a {@link uk.co.spudsoft.params4j.impl.SystemPropertiesGatherer SystemPropertiesGatherer} to the Params4J instance.
@@ -267,6 +455,73 @@ public interface Params4JFactory<P> {
    */
   Params4JFactory<P> withSecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset);
   
+  /**
+   * Convenience method for adding a {@link uk.co.spudsoft.params4j.impl.SecretsGatherer SecretsGatherer} that reads files concurrently to the Params4J instance.
+   * <P>
+   * This is the same as {@link #withSecretsGatherer(java.nio.file.Path, int, int, int, java.nio.charset.Charset)} except that up to readConcurrency
+   * files are read at the same time, on virtual threads (or a pool of daemon threads on JDKs prior to 21).
+   * This can significantly reduce the time taken to gather secrets from file systems where each read has a high latency.
+   * The resulting parameters are the same, whatever the concurrency.
+   * <P>
+   * Equivalent to
+   * <pre>
+   * return withGatherer(new SecretsGatherer$lt;>(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset, readConcurrency));
+   * </pre>
+   * 
+   * @param root The base path from which to start searching, typically something like "/etc/[service name]/conf.d"
+   * @param fileSizeLimit The maximum size of file to attempt to load.
+   * @param fileCountLimit The maximum number of files to attempt to load.
+   * @param fileDepthLimit The maximum depth of hierarchy to traverse.
+   * @param charset The charset to use when reading the file.
+   * @param readConcurrency The maximum number of files to read concurrently, values less than two read the files sequentially.
+   * @return this.
+   */
+  Params4JFactory<P> withSecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset, int readConcurrency);
+  
+  /**
+   * Convenience method for adding a {@link uk.co.spudsoft.params4j.impl.SecretsGatherer SecretsGatherer} that reads files concurrently on a specific executor to the Params4J instance.
+   * <P>
+   * This is the same as {@link #withSecretsGatherer(java.nio.file.Path, int, int, int, java.nio.charset.Charset, int)} except that the files are read on the readExecutor.
+   * No more than readConcurrency reads are submitted to the executor at the same time.
+   * <P>
+   * Equivalent to
+   * <pre>
+   * return withGatherer(new SecretsGatherer$lt;>(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset, readConcurrency, readExecutor));
+   * </pre>
+   * 
+   * @param root The base path from which to start searching, typically something like "/etc/[service name]/conf.d"
+   * @param fileSizeLimit The maximum size of file to attempt to load.
+   * @param fileCountLimit The maximum number of files to attempt to load.
+   * @param fileDepthLimit The maximum depth of hierarchy to traverse.
+   * @param charset The charset to use when reading the file.
+   * @param readConcurrency The maximum number of files to read concurrently, values less than two read the files sequentially.
+   * @param readExecutor The executor on which to read the files, if null the default is used.
+   * @return this.
+   */
+  Params4JFactory<P> withSecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset, int readConcurrency, Executor readExecutor);
+  
+  /**
+   * Convenience method for adding a {@link uk.co.spudsoft.params4j.impl.SecretsGatherer SecretsGatherer} in lazy mode to the Params4J instance.
+   * <P>
+   * In lazy mode no secrets are read when the parameters are gathered, instead each secret is represented by a {@link SecretHandle}
+   * that reads the file when it is used (and can cache, and later zero, the contents).
+   * Properties of type SecretHandle are set to the handle, so files that are never used are never read.
+   * Properties of type String are set to the contents of the file when the parameters are bound.
+   * <P>
+   * Equivalent to
+   * <pre>
+   * return withGatherer(new SecretsGatherer$lt;>(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset, 1, true));
+   * </pre>
+   * 
+   * @param root The base path from which to start searching, typically something like "/etc/[service name]/conf.d"
+   * @param fileSizeLimit The maximum size of file to attempt to load.
+   * @param fileCountLimit The maximum number of files to attempt to load.
+   * @param fileDepthLimit The maximum depth of hierarchy to traverse.
+   * @param charset The charset to use when reading the file.
+   * @return this.
+   */
+  Params4JFactory<P> withLazySecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset);
+  
   /**
    * Factory method for creating a new instance of Params4J&lt;P>.
    * 
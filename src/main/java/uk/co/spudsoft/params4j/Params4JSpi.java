@@ -4,12 +4,21 @@
  */
 package uk.co.spudsoft.params4j;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.dataformat.javaprop.JavaPropsMapper;
+import com.fasterxml.jackson.dataformat.javaprop.JavaPropsSchema;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.slf4j.LoggerFactory;
+import uk.co.spudsoft.params4j.impl.OverlayMerger;
 
 /**
  * Service provider interface for Params4J.
@@ -46,6 +55,71 @@ public interface Params4JSpi {
    */
   void watch(Path path) throws IOException;
   
+  /**
+   * Add a path to the list of watch paths, with a filter that identifies the changes that are relevant to the caller.
+   * <P>
+   * Changes to entries in the path that are rejected by the filter are dropped, they will neither trigger a reload nor delay a reload that is already pending.
+   * If the same path is watched more than once the change is relevant if any of the filters accept it (or if any watch was made without a filter).
+   * The same filter instance should be passed on each call, to avoid accumulating duplicate filters.
+   * <P>
+   * The default implementation ignores the filter.
+   * 
+   * @param path The path to be watched.
+   * @param filter Predicate that returns true for the entries of the path that are relevant.
+   * @throws IOException if something goes wrong.
+   */
+  default void watch(Path path, Predicate<Path> filter) throws IOException {
+    watch(path);
+  }
+  
+  /**
+   * Report a problem that means that the parameters gathered may be incomplete or incorrect.
+   * <P>
+   * Gatherers should report problems such as files that cannot be parsed via this method rather than simply logging them,
+   * so that the {@link ReloadPolicy} can be applied.
+   * <P>
+   * The default implementation logs the problem.
+   * 
+   * @param message Description of the problem.
+   * @param cause The exception that caused the problem, may be null.
+   */
+  default void reportError(String message, Throwable cause) {
+    LoggerFactory.getLogger(Params4JSpi.class).warn("{}: ", message, cause);
+  }
+  
+  /**
+   * Get the documented properties of the parameters object.
+   * <P>
+   * This is the model returned by {@link Params4J#getDocumentation(java.lang.Object, java.lang.String, java.util.List, java.util.List)}
+   * for a newly constructed parameters object with no prefix, it allows gatherers to map values to properties that are known to exist.
+   * <P>
+   * The default implementation returns an empty list.
+   * 
+   * @param terminalClasses List of regular expressions used to identify properties that are of terminal types, may be null.
+   * @param undocumentedClasses List of regular expressions used to identify properties that are of undocumented types, may be null.
+   * @return The documented properties of the parameters object.
+   */
+  default List<ConfigurationProperty> getDocumentation(List<Pattern> terminalClasses, List<Pattern> undocumentedClasses) {
+    return Collections.emptyList();
+  }
+  
+  /**
+   * Merge an overlay into a target, using the same rules that are used when overlays are bound to the parameters object.
+   * <P>
+   * Objects are merged recursively, arrays are appended to and other values replace the value in the target.
+   * The names of properties of the parameters object (and of the beans within it) are matched without regard to case, other field names (such as the keys of Maps) must match exactly.
+   * Gatherers that merge several sources into one overlay should use this method, so that the result is the same as binding each source in turn.
+   * <P>
+   * The default implementation matches all field names exactly.
+   * 
+   * @param target The ObjectNode that will be updated.
+   * @param overlay The ObjectNode containing the values to be merged into the target, this is not altered.
+   * @return The target.
+   */
+  default ObjectNode mergeOverlay(ObjectNode target, ObjectNode overlay) {
+    return OverlayMerger.merge(target, overlay);
+  }
+  
   /**
    * Return a newly created properties file with values taken from the passed in entries.
    * 
@@ -72,4 +146,45 @@ public interface Params4JSpi {
           String propertyPrefix
   ) throws IOException;
   
+  /**
+   * Return a newly created JSON tree with values taken from the passed in entries.
+   * 
+   * The entries are filtered in the same way as {@link #prepareProperties(java.lang.String, java.util.Collection, java.util.function.Function, java.util.function.Function, java.lang.String)}
+   * and the keys are split into paths in the same way as the props mapper would split them: '.' separates the segments of the path, 
+   * "[n]" (or a segment that is entirely digits) is an index and '\' escapes a following '.'.
+   * <P>
+   * The tree is suitable for use as an overlay, or for updating a parameters object with
+   * {@link com.fasterxml.jackson.databind.ObjectReader#readValue(com.fasterxml.jackson.databind.JsonNode)}.
+   * <P>
+   * The default implementation parses the output of prepareProperties with the props mapper,
+   * implementations should build the tree directly so that values containing newlines, '=' or '\' are not corrupted.
+   * 
+   * @param <T> The type of the entries - typically Map::Entry.
+   * @param name The name of the source of the properties, only used for logging.
+   * @param entries The collection of entries to be processed.
+   * @param keyGetter Function to extract the key from an entry - any non-string values will be ignored.
+   * @param valueGetter Function to extract the value from an entry - any non-string values will be ignored.
+   * @param propertyPrefix Prefix to be removed from the leading part of any key values.
+   *     If not null any key values that do not begin with that prefix will be ignored.
+   * @return A newly created ObjectNode, which will be empty if there are no entries.
+   * @throws IOException if something goes wrong.
+   */
+  default <T> ObjectNode prepareTree(String name,
+          Collection<T> entries,
+          Function<T, Object> keyGetter,
+          Function<T, Object> valueGetter,
+          String propertyPrefix
+  ) throws IOException {
+    byte[] props = prepareProperties(name, entries, keyGetter, valueGetter, propertyPrefix);
+    if (props.length > 0) {
+      JsonNode node = getPropsMapper()
+              .reader(new JavaPropsSchema().withPathSeparatorEscapeChar('\\'))
+              .readTree(props);
+      if (node instanceof ObjectNode objectNode) {
+        return objectNode;
+      }
+    }
+    return getJsonMapper().createObjectNode();
+  }
+  
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The rules governing how often Params4J reloads the parameters in response to file changes, and what happens when a reload reports errors.
+ * <P>
+ * Reloads are never started less than the minimum interval after the previous reload started.
+ * After a reload in which any gatherer reported an error the interval is extended by a backoff, which starts at the initial backoff and doubles
+ * for each consecutive failed reload, up to the maximum backoff.
+ * Changes that arrive whilst a reload is held back are not lost, they are all processed by the next reload.
+ * <P>
+ * If keepLastGood is set the parameters from a gather that reported errors are not published (and listeners are not notified),
+ * the last parameters gathered without errors remain current until a gather succeeds without errors.
+ * 
+ * @author jtalbut
+ */
+public final class ReloadPolicy {
+  
+  /**
+   * The default policy: no minimum interval, a backoff starting at one second and growing to one minute, and the parameters from failed gathers are published.
+   */
+  public static final ReloadPolicy DEFAULT = builder().build();
+  
+  private final Duration minInterval;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final boolean keepLastGood;
+
+  /**
+   * Builder.
+   */
+  public static class Builder {
+
+    private Duration minInterval = Duration.ZERO;
+    private Duration initialBackoff = Duration.ofSeconds(1);
+    private Duration maxBackoff = Duration.ofMinutes(1);
+    private boolean keepLastGood;
+  
+    private Builder() {
+    }
+
+    /**
+     * Set the minimum time between the starts of two reloads.
+     * @param value the minimum time between the starts of two reloads.
+     * @return this
+     */
+    public Builder minInterval(final Duration value) {
+      this.minInterval = value;
+      return this;
+    }
+
+    /**
+     * Set the additional delay before the reload that follows a reload that reported errors.
+     * @param value the additional delay before the reload that follows a reload that reported errors.
+     * @return this
+     */
+    public Builder initialBackoff(final Duration value) {
+      this.initialBackoff = value;
+      return this;
+    }
+
+    /**
+     * Set the longest additional delay after consecutive reloads that reported errors.
+     * @param value the longest additional delay after consecutive reloads that reported errors.
+     * @return this
+     */
+    public Builder maxBackoff(final Duration value) {
+      this.maxBackoff = value;
+      return this;
+    }
+
+    /**
+     * Set whether the last parameters gathered without errors should remain current until another gather succeeds without errors.
+     * @param value whether the last parameters gathered without errors should remain current until another gather succeeds without errors.
+     * @return this
+     */
+    public Builder keepLastGood(final boolean value) {
+      this.keepLastGood = value;
+      return this;
+    }
+
+    /**
+     * Construct a new {@link ReloadPolicy} instance.
+     * @return a new {@link ReloadPolicy} instance.
+     * @throws IllegalArgumentException if any duration is negative or the maximum backoff is shorter than the initial backoff.
+     */
+    public ReloadPolicy build() {
+      return new ReloadPolicy(minInterval, initialBackoff, maxBackoff, keepLastGood);
+    }
+  }
+
+  /**
+   * Construct a {@link Builder} instance.
+   * @return a newly constructed {@link Builder} instance.
+   */
+  public static ReloadPolicy.Builder builder() {
+    return new ReloadPolicy.Builder();
+  }
+
+  private ReloadPolicy(Duration minInterval, Duration initialBackoff, Duration maxBackoff, boolean keepLastGood) {
+    Objects.requireNonNull(minInterval, "The minimum interval must be set");
+    Objects.requireNonNull(initialBackoff, "The initial backoff must be set");
+    Objects.requireNonNull(maxBackoff, "The maximum backoff must be set");
+    if (minInterval.isNegative() || initialBackoff.isNegative()) {
+      throw new IllegalArgumentException("The minimum interval and initial backoff must not be negative");
+    }
+    if (maxBackoff.compareTo(initialBackoff) < 0) {
+      throw new IllegalArgumentException("The maximum backoff must not be shorter than the initial backoff");
+    }
+    this.minInterval = minInterval;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    this.keepLastGood = keepLastGood;
+  }
+
+  /**
+   * Get the minimum time between the starts of two reloads.
+   * @return the minimum time between the starts of two reloads.
+   */
+  public Duration getMinInterval() {
+    return minInterval;
+  }
+
+  /**
+   * Get the additional delay before the reload that follows a reload that reported errors.
+   * @return the additional delay before the reload that follows a reload that reported errors.
+   */
+  public Duration getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  /**
+   * Get the longest additional delay after consecutive reloads that reported errors.
+   * @return the longest additional delay after consecutive reloads that reported errors.
+   */
+  public Duration getMaxBackoff() {
+    return maxBackoff;
+  }
+
+  /**
+   * Get whether the last parameters gathered without errors should remain current until another gather succeeds without errors.
+   * @return whether the last parameters gathered without errors should remain current until another gather succeeds without errors.
+   */
+  public boolean isKeepLastGood() {
+    return keepLastGood;
+  }
+
+  @Override
+  public String toString() {
+    return "ReloadPolicy{minInterval=" + minInterval + ", initialBackoff=" + initialBackoff + ", maxBackoff=" + maxBackoff + ", keepLastGood=" + keepLastGood + '}';
+  }
+  
+}
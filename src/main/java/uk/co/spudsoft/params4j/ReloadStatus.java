@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j;
+
+import java.time.Duration;
+
+/**
+ * The state of the reloading of parameters in response to file changes, as governed by the {@link ReloadPolicy}.
+ * 
+ * @author jtalbut
+ */
+public final class ReloadStatus {
+  
+  private final long reloads;
+  private final long deferredReloads;
+  private final int consecutiveFailures;
+  private final int lastErrorCount;
+  private final Duration nextReloadDelay;
+  private final boolean pinned;
+
+  /**
+   * Constructor.
+   * @param reloads The number of reloads that have been performed in response to file changes.
+   * @param deferredReloads The number of times a reload has been held back by the policy.
+   * @param consecutiveFailures The number of consecutive reloads that have reported errors.
+   * @param lastErrorCount The number of errors reported by the most recent reload.
+   * @param nextReloadDelay The time that the next reload would be held back if a change happened now.
+   * @param pinned True if the current parameters are being kept because the most recent gather reported errors.
+   */
+  public ReloadStatus(long reloads, long deferredReloads, int consecutiveFailures, int lastErrorCount, Duration nextReloadDelay, boolean pinned) {
+    this.reloads = reloads;
+    this.deferredReloads = deferredReloads;
+    this.consecutiveFailures = consecutiveFailures;
+    this.lastErrorCount = lastErrorCount;
+    this.nextReloadDelay = nextReloadDelay;
+    this.pinned = pinned;
+  }
+
+  /**
+   * Get the number of reloads that have been performed in response to file changes.
+   * @return the number of reloads that have been performed in response to file changes.
+   */
+  public long getReloads() {
+    return reloads;
+  }
+
+  /**
+   * Get the number of times a reload has been held back by the policy.
+   * @return the number of times a reload has been held back by the policy.
+   */
+  public long getDeferredReloads() {
+    return deferredReloads;
+  }
+
+  /**
+   * Get the number of consecutive reloads that have reported errors.
+   * @return the number of consecutive reloads that have reported errors.
+   */
+  public int getConsecutiveFailures() {
+    return consecutiveFailures;
+  }
+
+  /**
+   * Get the number of errors reported by the most recent reload.
+   * @return the number of errors reported by the most recent reload.
+   */
+  public int getLastErrorCount() {
+    return lastErrorCount;
+  }
+
+  /**
+   * Get the time that the next reload would be held back if a change happened now.
+   * @return the time that the next reload would be held back if a change happened now.
+   */
+  public Duration getNextReloadDelay() {
+    return nextReloadDelay;
+  }
+
+  /**
+   * Get whether the current parameters are being kept because the most recent gather reported errors.
+   * @return true if the current parameters are being kept because the most recent gather reported errors.
+   */
+  public boolean isPinned() {
+    return pinned;
+  }
+
+  @Override
+  public String toString() {
+    return "ReloadStatus{reloads=" + reloads + ", deferredReloads=" + deferredReloads + ", consecutiveFailures=" + consecutiveFailures 
+            + ", lastErrorCount=" + lastErrorCount + ", nextReloadDelay=" + nextReloadDelay + ", pinned=" + pinned + '}';
+  }
+  
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A reference to a secret file that is read when it is first used, rather than when the parameters are gathered.
+ * <P>
+ * Handles are created by a {@link uk.co.spudsoft.params4j.impl.SecretsGatherer SecretsGatherer} in lazy mode,
+ * a parameters property of type SecretHandle will be set to the handle for the corresponding file.
+ * Properties of type String are still set to the contents of the file (which is read when the parameters are bound).
+ * <P>
+ * The handle records the size and last modified time of the file when it was found, two handles are equal if they refer to the same file with the same attributes.
+ * The contents of the file are never included in the output of {@link #toString()}, which is also how handles are written as JSON
+ * (except when the parameters are converted to a JSON tree, which keeps the handle itself, so that it can be bound again).
+ * <P>
+ * {@link #getValue()} caches the contents of the file, the cache can be zeroed and discarded with {@link #evict()}.
+ * {@link #readBytes()} reads the file without caching it, allowing the caller to zero the result when it is no longer needed.
+ *
+ * @author jtalbut
+ */
+@JsonSerialize(using = SecretHandle.Serializer.class)
+@JsonDeserialize(using = SecretHandle.Deserializer.class)
+public final class SecretHandle {
+
+  private final Path path;
+  private final long size;
+  private final Instant lastModified;
+  private final long sizeLimit;
+  private final Charset charset;
+
+  private byte[] cached;
+
+  /**
+   * Constructor.
+   * @param path The path to the file.
+   * @param size The size of the file when it was found.
+   * @param lastModified The last modified time of the file when it was found.
+   * @param sizeLimit The maximum size of the file, if the file has grown beyond this size it will not be read.
+   * @param charset The charset to use to convert the contents of the file to a String.
+   * @throws IllegalArgumentException if the sizeLimit is negative.
+   */
+  public SecretHandle(Path path, long size, Instant lastModified, long sizeLimit, Charset charset) {
+    if (sizeLimit < 0) {
+      throw new IllegalArgumentException("The size limit must not be negative");
+    }
+    this.path = path;
+    this.size = size;
+    this.lastModified = lastModified;
+    this.sizeLimit = sizeLimit;
+    this.charset = charset;
+  }
+
+  /**
+   * Get the path to the file.
+   * @return the path to the file.
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Get the size of the file when it was found.
+   * @return the size of the file when it was found.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Get the last modified time of the file when it was found.
+   * @return the last modified time of the file when it was found.
+   */
+  public Instant getLastModified() {
+    return lastModified;
+  }
+
+  /**
+   * Read the file, without caching the contents.
+   * <P>
+   * The caller may zero the returned array when it is no longer needed.
+   *
+   * @return the contents of the file.
+   * @throws IOException if the file cannot be read, or is larger than the size limit.
+   */
+  public byte[] readBytes() throws IOException {
+    try (InputStream stream = Files.newInputStream(path)) {
+      byte[] result = stream.readNBytes((int) Math.min(Integer.MAX_VALUE - 8L, sizeLimit) + 1);
+      if (result.length > sizeLimit) {
+        Arrays.fill(result, (byte) 0);
+        throw new IOException("Secret " + path + " is larger than the maximum size (" + sizeLimit + ")");
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Read the file as a String, without caching the contents.
+   * @return the contents of the file as a String.
+   * @throws IOException if the file cannot be read, or is larger than the size limit.
+   */
+  public String readValue() throws IOException {
+    byte[] bytes = readBytes();
+    try {
+      return new String(bytes, charset);
+    } finally {
+      Arrays.fill(bytes, (byte) 0);
+    }
+  }
+
+  /**
+   * Get the contents of the file as a String, reading the file if it is not already cached.
+   * @return the contents of the file as a String.
+   * @throws IOException if the file cannot be read, or is larger than the size limit.
+   */
+  public String getValue() throws IOException {
+    byte[] bytes;
+    synchronized (this) {
+      if (cached == null) {
+        cached = readBytes();
+      }
+      bytes = cached;
+    }
+    return new String(bytes, charset);
+  }
+
+  /**
+   * Return true if the contents of the file are currently cached.
+   * @return true if the contents of the file are currently cached.
+   */
+  public synchronized boolean isCached() {
+    return cached != null;
+  }
+
+  /**
+   * Zero and discard any cached contents of the file.
+   * <P>
+   * The file will be read again the next time that {@link #getValue()} is called.
+   * Strings previously returned by {@link #getValue()} cannot be zeroed.
+   */
+  public synchronized void evict() {
+    if (cached != null) {
+      Arrays.fill(cached, (byte) 0);
+      cached = null;
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 7;
+    hash = 59 * hash + Objects.hashCode(this.path);
+    hash = 59 * hash + Long.hashCode(this.size);
+    hash = 59 * hash + Objects.hashCode(this.lastModified);
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    final SecretHandle other = (SecretHandle) obj;
+    return this.size == other.size
+            && Objects.equals(this.path, other.path)
+            && Objects.equals(this.lastModified, other.lastModified);
+  }
+
+  @Override
+  public String toString() {
+    return "SecretHandle{" + path + "; " + size + "; " + lastModified + "}";
+  }
+
+  /**
+   * Serializer that embeds the handle in JSON trees and writes the output of {@link #toString()} anywhere else.
+   */
+  public static class Serializer extends StdSerializer<SecretHandle> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     */
+    public Serializer() {
+      super(SecretHandle.class);
+    }
+
+    @Override
+    public void serialize(SecretHandle value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      if (gen instanceof TokenBuffer) {
+        gen.writeEmbeddedObject(value);
+      } else {
+        gen.writeString(value.toString());
+      }
+    }
+
+  }
+
+  /**
+   * Deserializer that accepts handles embedded in a JSON tree.
+   * <P>
+   * SecretHandles cannot be created from any other JSON value.
+   */
+  public static class Deserializer extends StdScalarDeserializer<SecretHandle> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     */
+    public Deserializer() {
+      super(SecretHandle.class);
+    }
+
+    @Override
+    public SecretHandle deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      if (p.hasToken(JsonToken.VALUE_EMBEDDED_OBJECT) && p.getEmbeddedObject() instanceof SecretHandle handle) {
+        return handle;
+      }
+      return (SecretHandle) ctxt.handleUnexpectedToken(SecretHandle.class, p);
+    }
+
+  }
+
+}
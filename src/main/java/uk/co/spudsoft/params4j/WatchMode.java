@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j;
+
+/**
+ * The mechanism used to detect changes to the directories that gatherers ask to watch.
+ *
+ * @author jtalbut
+ */
+public enum WatchMode {
+  
+  /**
+   * Use the {@link java.nio.file.WatchService} of the FileSystem, falling back to polling for any directory that cannot be registered with it.
+   */
+  Auto
+  , 
+  /**
+   * Use the {@link java.nio.file.WatchService} of the FileSystem only.
+   * <P>
+   * Directories that cannot be registered with the WatchService will not be watched.
+   */
+  Native
+  , 
+  /**
+   * Poll the attributes (size, last modified time and file key) of the files in each directory.
+   * <P>
+   * On some filesystems (NFS and some overlay filesystems, for example) the WatchService can be registered but events never arrive,
+   * polling must be selected explicitly for such filesystems.
+   * <P>
+   * The contents of files are never read by the poller.
+   * The interval between polls of a directory grows while nothing changes, up to a maximum, and returns to the minimum when a change is seen.
+   */
+  Polling
+  
+}
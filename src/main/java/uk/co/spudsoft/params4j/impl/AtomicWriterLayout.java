@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Helpers for directories written by the Kubernetes atomic writer (ConfigMap, Secret and projected volumes).
+ * <P>
+ * The atomic writer puts each generation of the volume in a hidden directory (named something like "..2026_01_01_00_00_00.123456789")
+ * and points a "..data" symlink at the current generation.
+ * The user visible entries in the volume are symlinks through "..data".
+ * An update writes a new generation directory, creates a "..data_tmp" symlink to it, renames "..data_tmp" over "..data" and then removes the old generation.
+ * <P>
+ * The rename is the only change that matters, all the other entries that change are hidden and can be ignored.
+ * Reading via the resolved generation directory, rather than via the user visible symlinks, guarantees that all files come from the same generation.
+ *
+ * @author jtalbut
+ */
+final class AtomicWriterLayout {
+
+  private static final Logger logger = LoggerFactory.getLogger(AtomicWriterLayout.class);
+  
+  /**
+   * The name of the symlink that points to the current generation.
+   */
+  static final String DATA_LINK = "..data";
+  
+  private static final String HIDDEN_PREFIX = "..";
+
+  private AtomicWriterLayout() {
+  }
+  
+  /**
+   * Return true if the path is the "..data" symlink of an atomic writer directory.
+   * @param path The path that has changed.
+   * @return true if the path is the "..data" symlink of an atomic writer directory.
+   */
+  static boolean isDataLink(Path path) {
+    Path name = path.getFileName();
+    return name != null && DATA_LINK.equals(name.toString());
+  }
+  
+  /**
+   * Return true if the path is one of the hidden entries in an atomic writer directory that can be ignored.
+   * <P>
+   * The "..data" symlink itself is not ignorable.
+   * The parent directory must contain a "..data" symlink for the path to be considered part of the atomic writer layout.
+   * 
+   * @param path The path that has changed.
+   * @return true if the path is one of the hidden entries in an atomic writer directory that can be ignored.
+   */
+  static boolean isIgnorable(Path path) {
+    Path name = path.getFileName();
+    Path parent = path.getParent();
+    return name != null
+            && parent != null
+            && name.toString().startsWith(HIDDEN_PREFIX)
+            && !DATA_LINK.equals(name.toString())
+            && Files.isSymbolicLink(parent.resolve(DATA_LINK));
+  }
+  
+  /**
+   * Get the directory holding the current generation of an atomic writer directory.
+   * @param dir The directory that may have been written by the atomic writer.
+   * @return The directory holding the current generation, or dir if dir does not have the atomic writer layout.
+   */
+  static Path currentGeneration(Path dir) {
+    Path link = dir.resolve(DATA_LINK);
+    if (Files.isSymbolicLink(link)) {
+      try {
+        Path generation = dir.resolve(Files.readSymbolicLink(link)).normalize();
+        if (Files.isDirectory(generation)) {
+          logger.trace("Current generation of {} is {}", dir, generation);
+          return generation;
+        }
+      } catch (IOException ex) {
+        logger.debug("Failed to resolve {}: {}", link, ex.getMessage());
+      }
+    }
+    return dir;
+  }
+  
+}
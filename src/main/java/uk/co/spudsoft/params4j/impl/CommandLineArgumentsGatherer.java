@@ -5,12 +5,13 @@
 package uk.co.spudsoft.params4j.impl;
 
 import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.dataformat.javaprop.JavaPropsSchema;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import uk.co.spudsoft.params4j.ParameterGatherer;
+import uk.co.spudsoft.params4j.ChangeAware;
+import uk.co.spudsoft.params4j.OverlayGatherer;
 import uk.co.spudsoft.params4j.Params4JSpi;
 
 /**
@@ -30,7 +31,7 @@ import uk.co.spudsoft.params4j.Params4JSpi;
  * 
  * @param <P> The type of the parameters object.
  */
-public class CommandLineArgumentsGatherer<P> implements ParameterGatherer<P> {
+public class CommandLineArgumentsGatherer<P> implements OverlayGatherer<P>, ChangeAware {
 
   private final Map<String, String> args;
   private final String namePrefix;
@@ -61,17 +62,27 @@ public class CommandLineArgumentsGatherer<P> implements ParameterGatherer<P> {
   
   @Override
   public P gatherParameters(Params4JSpi spi, P base) throws IOException {
-    ObjectReader reader = spi.getPropsMapper()
-            .readerForUpdating(base)
-            .with(new JavaPropsSchema().withPathSeparatorEscapeChar('\\'))
-            ;
-    
-    byte[] props = spi.prepareProperties("Command line arguments", args.entrySet(), Entry::getKey, Entry::getValue, namePrefix);
-    if (props.length > 0) {
-      return reader.readValue(props);
-    } else {
+    ObjectNode tree = gatherOverlay(spi);
+    if (tree.isEmpty()) {
       return base;
-    }    
+    }
+    ObjectReader reader = spi.getPropsMapper().readerForUpdating(base);
+    return reader.readValue(tree);
+  }
+
+  @Override
+  public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+    return spi.prepareTree("Command line arguments", args.entrySet(), Entry::getKey, Entry::getValue, namePrefix);
+  }
+
+  /**
+   * The arguments are captured when the gatherer is constructed and cannot change.
+   * 
+   * @return the captured arguments.
+   */
+  @Override
+  public Object getFingerprint() {
+    return args;
   }
 
   @Override
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import uk.co.spudsoft.params4j.DebouncePolicy;
+
+/**
+ * Collects change events and determines when they should be delivered, according to a {@link DebouncePolicy}.
+ * <P>
+ * All times are in nanoseconds, as returned by {@link System#nanoTime()}, and are passed in to make the behaviour deterministic.
+ * 
+ * @author jtalbut
+ */
+final class Debouncer {
+  
+  /**
+   * Value returned by {@link #deadline()} when there are no events waiting to be delivered.
+   */
+  static final long IDLE = Long.MAX_VALUE;
+  
+  private final DebouncePolicy policy;
+  private final long quietNanos;
+  private final long maxWaitNanos;
+  
+  private Set<Path> changed = new HashSet<>();
+  private boolean inBurst;
+  private long burstStart;
+  private long lastEvent;
+  private boolean immediate;
+  private long lastFire;
+  private boolean fired;
+  private long averageGapNanos;
+  private long effectiveQuietNanos;
+  private long lastLatencyNanos;
+  private long maxLatencyNanos;
+
+  Debouncer(DebouncePolicy policy) {
+    this.policy = policy;
+    this.quietNanos = policy.getQuietPeriod().toNanos();
+    this.maxWaitNanos = policy.getMaxWait().toNanos();
+    this.effectiveQuietNanos = quietNanos;
+  }
+
+  /**
+   * Record that some paths have changed.
+   * @param now The time at which the change was seen.
+   * @param paths The paths that have changed.
+   */
+  synchronized void event(long now, Collection<Path> paths) {
+    event(now, paths, false);
+  }
+
+  /**
+   * Record that some paths have changed.
+   * @param now The time at which the change was seen.
+   * @param paths The paths that have changed.
+   * @param deliverImmediately If true the changes (and any already collected) should be delivered without waiting for the quiet period.
+   */
+  synchronized void event(long now, Collection<Path> paths, boolean deliverImmediately) {
+    if (inBurst) {
+      recordGap(now - lastEvent);
+    } else {
+      if (fired && now - lastFire < 2 * effectiveQuietNanos) {
+        // A change shortly after a delivery suggests that the batch was split
+        recordGap(now - lastEvent);
+      }
+      inBurst = true;
+      burstStart = now;
+    }
+    lastEvent = now;
+    immediate |= deliverImmediately;
+    changed.addAll(paths);
+  }
+  
+  private void recordGap(long gap) {
+    if (policy.isAdaptive()) {
+      averageGapNanos = averageGapNanos == 0 ? gap : (averageGapNanos * 3 + gap) / 4;
+      effectiveQuietNanos = Math.min(Math.max(quietNanos, 2 * averageGapNanos), maxWaitNanos);
+    }
+  }
+
+  /**
+   * Get the time at which the collected changes should be delivered.
+   * @return the time at which the collected changes should be delivered, or {@link #IDLE} if there are none.
+   */
+  synchronized long deadline() {
+    if (!inBurst) {
+      return IDLE;
+    } else if (immediate) {
+      return lastEvent;
+    }
+    return Math.min(lastEvent + effectiveQuietNanos, burstStart + maxWaitNanos);
+  }
+
+  /**
+   * Take the collected changes for delivery.
+   * @param now The time at which the changes are being delivered.
+   * @return the collected changes, or null if there are none.
+   */
+  synchronized Set<Path> fire(long now) {
+    if (!inBurst) {
+      return null;
+    }
+    Set<Path> result = Collections.unmodifiableSet(changed);
+    changed = new HashSet<>();
+    inBurst = false;
+    immediate = false;
+    fired = true;
+    lastFire = now;
+    lastLatencyNanos = now - burstStart;
+    maxLatencyNanos = Math.max(maxLatencyNanos, lastLatencyNanos);
+    return result;
+  }
+
+  /**
+   * Get the time between the first change in the most recent batch and its delivery.
+   * @return the time between the first change in the most recent batch and its delivery.
+   */
+  synchronized Duration getLastLatency() {
+    return Duration.ofNanos(lastLatencyNanos);
+  }
+
+  /**
+   * Get the longest time between the first change in a batch and its delivery.
+   * @return the longest time between the first change in a batch and its delivery.
+   */
+  synchronized Duration getMaxLatency() {
+    return Duration.ofNanos(maxLatencyNanos);
+  }
+
+  /**
+   * Get the quiet period currently in use, which will differ from the configured quiet period if the policy is adaptive.
+   * @return the quiet period currently in use.
+   */
+  synchronized Duration getEffectiveQuietPeriod() {
+    return Duration.ofNanos(effectiveQuietNanos);
+  }
+  
+}
@@ -5,19 +5,32 @@
 package uk.co.spudsoft.params4j.impl;
 
 import uk.co.spudsoft.params4j.FileType;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import uk.co.spudsoft.params4j.ParameterGatherer;
+import uk.co.spudsoft.params4j.ChangeAware;
+import uk.co.spudsoft.params4j.OverlayGatherer;
 import uk.co.spudsoft.params4j.Params4JSpi;
 
 /**
@@ -26,17 +39,29 @@ import uk.co.spudsoft.params4j.Params4JSpi;
  * The files loaded may be property files, or JSON or YAML and will be recognised by their extension (see the @link{uk.co.spudsoft.params4j.impl.FileType} enum for details).
  * The constructor takes any number of 
  * 
+ * If the directory is a Kubernetes ConfigMap volume (it contains a "..data" symlink) the files are read from the generation directory that "..data" points to.
  * 
  * @author jtalbut
  * 
  * @param <P> The type of the parameters object.
  */
-public class DirGatherer<P> implements ParameterGatherer<P> {
+public class DirGatherer<P> implements OverlayGatherer<P>, ChangeAware {
   
   private static final Logger logger = LoggerFactory.getLogger(DirGatherer.class);
   
   private final File dir;
   private final List<FileType> fileTypes;
+  private final boolean hashContents;
+  private final Map<File, CachedFile> cache = new ConcurrentHashMap<>();
+  private final AtomicLong cacheHits = new AtomicLong();
+  private final AtomicLong cacheMisses = new AtomicLong();
+  private final Predicate<Path> relevant = this::isHandled;
+  
+  /**
+   * The parsed contents of a file and the attributes of the file when it was read.
+   */
+  private record CachedFile(FileType type, long size, FileTime lastModifiedTime, Object fileKey, long contentHash, JsonNode tree) {
+  }
 
   /**
    * Constructor.
@@ -45,16 +70,182 @@ public class DirGatherer<P> implements ParameterGatherer<P> {
    * @param fileTypes The file types that are to be looked for in the directory.
    */
   public DirGatherer(File dir, FileType... fileTypes) {
+    this(dir, false, fileTypes);
+  }
+
+  /**
+   * Constructor.
+   * <P>
+   * The parsed contents of each file are cached and only re-parsed when the size, last modified time or file key of the file changes.
+   * Some filesystems only record modification times to the nearest second (or worse), on such filesystems a change may not alter any of the attributes,
+   * so it is possible to also compare a hash of the contents of the file.
+   * This requires each file to be read on every gather, but files are still only parsed if they have changed.
+   * 
+   * @param dir The directory that is to be scanned and monitored.
+   *            Note that sub directories are not scanned.
+   * @param hashContents If true the contents of each file will be hashed and compared with the hash of the cached contents.
+   * @param fileTypes The file types that are to be looked for in the directory.
+   */
+  public DirGatherer(File dir, boolean hashContents, FileType... fileTypes) {
     this.dir = dir;
+    this.hashContents = hashContents;
     this.fileTypes = Arrays.asList(fileTypes).stream().distinct().collect(Collectors.toList());    
   }
 
+  /**
+   * Get the number of times that the parsed contents of a file have been taken from the cache.
+   * @return the number of times that the parsed contents of a file have been taken from the cache.
+   */
+  public long getCacheHits() {
+    return cacheHits.get();
+  }
+
+  /**
+   * Get the number of times that a file has had to be parsed.
+   * @return the number of times that a file has had to be parsed.
+   */
+  public long getCacheMisses() {
+    return cacheMisses.get();
+  }
+
   @Override
   public P gatherParameters(Params4JSpi spi, P base) throws IOException {
+    AtomicReference<P> result = new AtomicReference<>(base);
+    processFiles(spi, (file, type) -> {
+      JsonNode node = readTree(spi, file, type);
+      if (node != null && !node.isMissingNode()) {
+        ObjectReader reader = type.getObjectMapper(spi).readerForUpdating(result.get());
+        result.set(reader.readValue(node));
+      }
+    });
+    return result.get();
+  }
+
+  @Override
+  public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+    ObjectNode result = spi.getJsonMapper().createObjectNode();
+    processFiles(spi, (file, type) -> {
+      JsonNode node = readTree(spi, file, type);
+      if (node instanceof ObjectNode objectNode) {
+        spi.mergeOverlay(result, objectNode);
+      } else if (node != null && !node.isMissingNode()) {
+        spi.reportError("File " + file + " does not contain an object (" + node.getNodeType() + ")", null);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Re-read the directory if any of the changed paths is a file of one of the types handled by this gatherer.
+   * <P>
+   * Several DirGatherers may watch the same directory for different file types, this avoids re-reading files when only files of other types have changed.
+   * The directory is always re-read if the "..data" symlink of a Kubernetes ConfigMap volume has been swapped.
+   * 
+   * @param spi Instance of Params4JSpi for accessing common functionality.
+   * @param previous The overlay most recently returned by this gatherer.
+   * @param changed The paths that have changed.
+   * @return A JSON tree containing the parameters found in the directory.
+   * @throws IOException if something goes wrong.
+   */
+  @Override
+  public ObjectNode gatherOverlay(Params4JSpi spi, ObjectNode previous, Set<Path> changed) throws IOException {
+    Path dirPath = dir.toPath();
+    for (Path path : changed) {
+      if (path.equals(dirPath) || (dirPath.equals(path.getParent()) && (isHandled(path) || AtomicWriterLayout.isDataLink(path)))) {
+        return gatherOverlay(spi);
+      }
+    }
+    logger.trace("None of {} are relevant to {}", changed, this);
+    return previous;
+  }
+  
+  private boolean isHandled(Path path) {
+    String name = path.getFileName().toString();
+    for (FileType type : fileTypes) {
+      for (String extension : type.getExtensions()) {
+        if (name.endsWith(extension)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return the name, size, last modified time and file key of each file that would be read.
+   * <P>
+   * When the contents of files are being hashed the attributes are not considered reliable, so null is returned and the gatherer will always be run.
+   * 
+   * @return the name, size, last modified time and file key of each file that would be read.
+   * @throws IOException if something goes wrong.
+   */
+  @Override
+  public Object getFingerprint() throws IOException {
+    if (hashContents) {
+      return null;
+    }
+    List<Object> result = new ArrayList<>();
+    File[] files = AtomicWriterLayout.currentGeneration(dir.toPath()).toFile().listFiles();
+    if (files != null) {
+      Arrays.sort(files);
+      for (FileType type : fileTypes) {
+        for (File file : files) {
+          for (String extension : type.getExtensions()) {
+            if (file.getName().endsWith(extension)) {
+              BasicFileAttributes attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+              result.add(Arrays.asList(file.getName(), attrs.size(), attrs.lastModifiedTime(), attrs.fileKey()));
+            }
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the parsed contents of a file, from the cache if the file has not changed.
+   * <P>
+   * The returned JsonNode may be cached and must not be modified.
+   */
+  private JsonNode readTree(Params4JSpi spi, File file, FileType type) throws IOException {
+    BasicFileAttributes attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+    byte[] contents = null;
+    long contentHash = 0;
+    if (hashContents) {
+      contents = Files.readAllBytes(file.toPath());
+      CRC32C crc = new CRC32C();
+      crc.update(contents);
+      contentHash = crc.getValue();
+    }
+    CachedFile cached = cache.get(file);
+    if (cached != null
+            && cached.type() == type
+            && cached.size() == attrs.size()
+            && cached.lastModifiedTime().equals(attrs.lastModifiedTime())
+            && Objects.equals(cached.fileKey(), attrs.fileKey())
+            && cached.contentHash() == contentHash) {
+      logger.trace("Using cached contents of {}", file);
+      cacheHits.incrementAndGet();
+      return cached.tree();
+    }
+    cacheMisses.incrementAndGet();
+    JsonNode tree = contents == null 
+            ? type.getObjectMapper(spi).readTree(file) 
+            : type.getObjectMapper(spi).readTree(contents);
+    cache.put(file, new CachedFile(type, attrs.size(), attrs.lastModifiedTime(), attrs.fileKey(), contentHash, tree));
+    return tree;
+  }
+
+  private interface FileProcessor {
+    void process(File file, FileType type) throws IOException;
+  }
+  
+  private void processFiles(Params4JSpi spi, FileProcessor processor) throws IOException {
     
     Set<File> usedFiles = new HashSet<>();
     if (dir.isDirectory()) {
-      File[] files = dir.listFiles();
+      // Read a Kubernetes ConfigMap volume via its current generation so that all files come from the same generation
+      File[] files = AtomicWriterLayout.currentGeneration(dir.toPath()).toFile().listFiles();
       if (files != null) {
         Arrays.sort(files);  // To ensure consistent behaviour across systems
         for (FileType type : fileTypes) {
@@ -64,32 +255,29 @@ public class DirGatherer<P> implements ParameterGatherer<P> {
                 logger.debug("Reading file {}", file);
                 usedFiles.add(file);
                 try {
-                  ObjectReader reader = type.getObjectMapper(spi).readerForUpdating(base);
-
-                  try (InputStream stream = new FileInputStream(file)) {
-                    base = reader.readValue(stream);
-                  }
+                  processor.process(file, type);
                 } catch (Throwable ex) {
-                  logger.error("Failed to process file {}: ", file, ex);
+                  spi.reportError("Failed to process file " + file, ex);
                 }
               }
             }
           }
         }
+        cache.keySet().retainAll(usedFiles);
         for (File file : files) {
           if (!usedFiles.contains(file)) {
             logger.trace("Skipped the file {}, not of recognised type ({})", file, fileTypes);        
           }
         }
-        spi.watch(dir.toPath());
+        spi.watch(dir.toPath(), relevant);
       } else {
         logger.debug("No files in directory \"{}\"", dir);        
+        cache.clear();
       }
     } else {
       logger.debug("Config directory \"{}\" is not a directory", dir);
+      cache.clear();
     }
-    
-    return base;    
   }
 
   @Override
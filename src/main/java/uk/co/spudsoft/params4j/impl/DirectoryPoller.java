@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects changes to the files in a directory by periodically comparing their attributes.
+ * <P>
+ * Only the size, last modified time and file key of each file are compared, the contents of files are never read.
+ * The interval between polls grows by half each time nothing has changed, up to the maximum interval, and returns to the minimum interval when a change is seen.
+ * Each interval is randomly adjusted by up to 10% so that the polls of many directories are spread over time rather than happening together.
+ * <P>
+ * All DirectoryPollers share a single daemon thread.
+ *
+ * @author jtalbut
+ */
+final class DirectoryPoller {
+
+  private static final Logger logger = LoggerFactory.getLogger(DirectoryPoller.class);
+
+  private static final ScheduledExecutorService SCHEDULER = createScheduler();
+  
+  private final Path dir;
+  private final FileWatcher watcher;
+  private final long minIntervalNanos;
+  private final long maxIntervalNanos;
+  private long intervalNanos;
+  private Map<Path, FileState> previous;
+  private long pollCount;
+  private volatile boolean stopped;
+
+  /**
+   * The attributes of a file that are compared between polls.
+   */
+  private record FileState(long size, long lastModified, Object fileKey) {
+  }
+  
+  private static ScheduledExecutorService createScheduler() {
+    ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "Params4JPoller");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.setRemoveOnCancelPolicy(true);
+    return scheduler;
+  }
+
+  /**
+   * Constructor.
+   * <P>
+   * The current state of the directory is recorded by the constructor, so any subsequent change will be reported.
+   * 
+   * @param dir The directory to poll, as the FileWatcher knows it.
+   * @param watcher The FileWatcher to be notified of changes.
+   * @param minInterval The interval between polls after a change has been seen.
+   * @param maxInterval The longest interval between polls.
+   */
+  DirectoryPoller(Path dir, FileWatcher watcher, Duration minInterval, Duration maxInterval) {
+    this.dir = dir;
+    this.watcher = watcher;
+    this.minIntervalNanos = minInterval.toNanos();
+    this.maxIntervalNanos = Math.max(minIntervalNanos, maxInterval.toNanos());
+    this.intervalNanos = minIntervalNanos;
+    this.previous = scan();
+  }
+  
+  /**
+   * Begin polling.
+   */
+  void start() {
+    // Spread the first polls of directories registered together across the whole interval
+    schedule(ThreadLocalRandom.current().nextLong(minIntervalNanos) + 1);
+  }
+  
+  /**
+   * Stop polling.
+   */
+  void stop() {
+    stopped = true;
+  }
+  
+  /**
+   * Get the number of times the directory has been polled.
+   * @return the number of times the directory has been polled.
+   */
+  synchronized long getPollCount() {
+    return pollCount;
+  }
+
+  /**
+   * Get the current interval between polls.
+   * @return the current interval between polls.
+   */
+  synchronized Duration getInterval() {
+    return Duration.ofNanos(intervalNanos);
+  }
+  
+  private void schedule(long delayNanos) {
+    if (stopped) {
+      return;
+    }
+    SCHEDULER.schedule(this::poll, delayNanos, TimeUnit.NANOSECONDS);
+  }
+  
+  private void poll() {
+    if (stopped) {
+      return;
+    }
+    long delay;
+    boolean deleted;
+    synchronized (this) {
+      ++pollCount;
+      Map<Path, FileState> current = scan();
+      deleted = previous != null && current == null;
+      List<Path> changed = compare(previous, current);
+      previous = current;
+      if (changed.isEmpty()) {
+        intervalNanos = Math.min(maxIntervalNanos, intervalNanos + intervalNanos / 2);
+      } else {
+        intervalNanos = minIntervalNanos;
+        logger.trace("Changes found by polling {}: {}", dir, changed);
+        try {
+          watcher.onEvents(changed);
+        } catch (Throwable ex) {
+          logger.warn("Failed to pass events to {}: ", watcher, ex);
+        }
+      }
+      long jitter = intervalNanos / 10;
+      delay = intervalNanos + (jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter) : 0);
+    }
+    if (deleted) {
+      watcher.onInvalidated(dir);
+    }
+    schedule(delay);
+  }
+  
+  private List<Path> compare(Map<Path, FileState> before, Map<Path, FileState> after) {
+    List<Path> changed = new ArrayList<>();
+    if ((before == null) != (after == null)) {
+      changed.add(dir);
+    }
+    Map<Path, FileState> beforeFiles = before == null ? Map.of() : before;
+    Map<Path, FileState> afterFiles = after == null ? Map.of() : after;
+    for (Map.Entry<Path, FileState> entry : afterFiles.entrySet()) {
+      if (!Objects.equals(entry.getValue(), beforeFiles.get(entry.getKey()))) {
+        changed.add(entry.getKey());
+      }
+    }
+    for (Path path : beforeFiles.keySet()) {
+      if (!afterFiles.containsKey(path)) {
+        changed.add(path);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Read the attributes of every entry in the directory.
+   * @return the attributes of every entry in the directory, or null if the directory does not exist.
+   */
+  private Map<Path, FileState> scan() {
+    Map<Path, FileState> result = new HashMap<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+      for (Path path : stream) {
+        try {
+          BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+          result.put(path, new FileState(attrs.size(), attrs.lastModifiedTime().toMillis(), attrs.fileKey()));
+        } catch (IOException ex) {
+          // The file has been deleted since the directory was listed, it will be reported as a deletion
+          logger.trace("Failed to read attributes of {}: {}", path, ex.getMessage());
+        }
+      }
+    } catch (NoSuchFileException | NotDirectoryException ex) {
+      return null;
+    } catch (IOException ex) {
+      logger.debug("Failed to list {}: {}", dir, ex.getMessage());
+      return previous;
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "DirectoryPoller{" + dir + '}';
+  }
+  
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import uk.co.spudsoft.params4j.ConfigurationProperty;
+
+/**
+ * Lookup table from canonical environment variable names to the property paths that they set.
+ * <P>
+ * The table is built from the {@link ConfigurationProperty} model returned by
+ * {@link uk.co.spudsoft.params4j.Params4J#getDocumentation(java.lang.Object, java.lang.String, java.util.List, java.util.List) getDocumentation},
+ * the canonical name of a property is the same as that output by
+ * {@link ConfigurationProperty#appendEnv(java.lang.StringBuilder, int, java.lang.String, java.lang.String, java.lang.String) appendEnv}:
+ * the property name with each '.' replaced by '_', in upper case.
+ * <P>
+ * Properties with fixed names are resolved with a single hash lookup.
+ * Properties that contain list indexes or map keys are resolved by matching against a pattern, in which:
+ * <UL>
+ * <LI>"[&lt;n>]" becomes "_&lt;n>", so "LIST_2_NAME" sets "list[2].name".
+ * <LI>"&lt;xxx>" matches any text, which is used (with its case preserved) as the map key.
+ * <LI>An undocumented property matches any suffix, which is appended to the path with each '_' replaced by '.'.
+ * </UL>
+ *
+ * @author jtalbut
+ */
+final class EnvironmentVariableSchema {
+
+  private static final Pattern WILDCARDS = Pattern.compile("\\[<n>\\]|<xxx>");
+
+  private final Map<String, String> exact;
+  private final List<Template> templates;
+
+  /**
+   * A property whose name contains list indexes or map keys.
+   *
+   * @param pattern The pattern that matches the canonical names of the environment variables for the property.
+   * @param parts The parts of the property path, null entries are replaced by the corresponding capturing group.
+   * @param indexes For each capturing group, true if it is a list index.
+   * @param suffix True if the final capturing group is the suffix of an undocumented property.
+   */
+  private record Template(Pattern pattern, List<String> parts, List<Boolean> indexes, boolean suffix) {
+  }
+
+  private EnvironmentVariableSchema(Map<String, String> exact, List<Template> templates) {
+    this.exact = exact;
+    this.templates = templates;
+  }
+
+  /**
+   * Build the lookup table for a set of properties.
+   *
+   * @param properties The properties, as returned by getDocumentation with no prefix.
+   * @return A newly created EnvironmentVariableSchema.
+   */
+  static EnvironmentVariableSchema of(List<ConfigurationProperty> properties) {
+    Map<String, String> exact = new HashMap<>();
+    List<Template> templates = new ArrayList<>();
+    for (ConfigurationProperty property : properties) {
+      // Lists of objects are documented as "list.[<n>].name"
+      String name = property.name.replace(".[", "[");
+      Matcher matcher = WILDCARDS.matcher(name);
+      if (!property.undocumented && !matcher.find()) {
+        exact.putIfAbsent(canonicalName(name), name);
+        continue;
+      }
+      matcher.reset();
+      StringBuilder regex = new StringBuilder();
+      List<String> parts = new ArrayList<>();
+      List<Boolean> indexes = new ArrayList<>();
+      int last = 0;
+      while (matcher.find()) {
+        String literal = name.substring(last, matcher.start());
+        regex.append(Pattern.quote(canonicalName(literal)));
+        parts.add(literal);
+        boolean index = matcher.group().startsWith("[");
+        regex.append(index ? "_(\\d{1,9})" : "(.+?)");
+        parts.add(null);
+        indexes.add(index);
+        last = matcher.end();
+      }
+      String literal = name.substring(last);
+      regex.append(Pattern.quote(canonicalName(literal)));
+      parts.add(literal);
+      if (property.undocumented) {
+        regex.append("_(.+)");
+        parts.add(".");
+        parts.add(null);
+        indexes.add(false);
+      }
+      templates.add(new Template(Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE), parts, indexes, property.undocumented));
+    }
+    return new EnvironmentVariableSchema(exact, Collections.unmodifiableList(templates));
+  }
+
+  /**
+   * Convert a property name to the canonical name of the environment variable that sets it.
+   *
+   * @param name The property name.
+   * @return The canonical name of the environment variable.
+   */
+  static String canonicalName(String name) {
+    return name.replace('.', '_').toUpperCase(Locale.ROOT);
+  }
+
+  /**
+   * Get the path of the property set by an environment variable.
+   *
+   * @param name The name of the environment variable, without any prefix.
+   * @return The property path, suitable for passing to {@link uk.co.spudsoft.params4j.Params4JSpi#prepareTree}, or null if the name is not known.
+   */
+  String resolve(String name) {
+    String path = exact.get(name.toUpperCase(Locale.ROOT));
+    if (path != null) {
+      return path;
+    }
+    for (Template template : templates) {
+      Matcher matcher = template.pattern().matcher(name);
+      if (matcher.matches()) {
+        StringBuilder result = new StringBuilder();
+        int group = 0;
+        for (String part : template.parts()) {
+          if (part != null) {
+            result.append(part);
+          } else if (template.indexes().get(group)) {
+            result.append('[').append(Integer.parseInt(matcher.group(++group))).append(']');
+          } else if (template.suffix() && group == template.indexes().size() - 1) {
+            result.append(matcher.group(++group).replace('_', '.'));
+          } else {
+            result.append(matcher.group(++group).replace("\\", "\\\\").replace(".", "\\."));
+          }
+        }
+        return result.toString();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Get the number of properties in the table.
+   * @return the number of properties in the table.
+   */
+  int size() {
+    return exact.size() + templates.size();
+  }
+
+}
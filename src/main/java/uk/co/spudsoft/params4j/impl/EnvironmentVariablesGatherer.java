@@ -5,12 +5,14 @@
 package uk.co.spudsoft.params4j.impl;
 
 import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.dataformat.javaprop.JavaPropsSchema;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import uk.co.spudsoft.params4j.ParameterGatherer;
+import java.util.concurrent.ConcurrentHashMap;
+import uk.co.spudsoft.params4j.ChangeAware;
+import uk.co.spudsoft.params4j.OverlayGatherer;
 import uk.co.spudsoft.params4j.Params4JSpi;
 
 /**
@@ -40,19 +42,31 @@ import uk.co.spudsoft.params4j.Params4JSpi;
  * 
  * @param <P> The type of the parameters object.
  */
-public class EnvironmentVariablesGatherer<P> implements ParameterGatherer<P> {
+public class EnvironmentVariablesGatherer<P> implements OverlayGatherer<P>, ChangeAware {
 
-  private final Map<String, String> map;
-  private final String namePrefix;
+  /**
+   * The indexes of the process environment, which cannot change, keyed by the options used to build them.
+   */
+  private static final Map<IndexKey, Map<String, String>> SYSTEM_INDEXES = new ConcurrentHashMap<>();
+  
+  private record IndexKey(String namePrefix, boolean toLowerCase) {
+  }
+  
+  /**
+   * The normalised environment variables that begin with the namePrefix, with the namePrefix removed.
+   */
+  private final Map<String, String> index;
   
   /**
    * Constructor using the default environment.
+   * <P>
+   * The process environment cannot change, so the index of it is built once and shared by all gatherers with the same namePrefix and toLowerCase.
    * 
    * @param namePrefix The prefix that can be used to filter environment variables.
    * @param toLowerCase If true all environment variable names will be converted to lower case before passing to Jackson.
    */
   public EnvironmentVariablesGatherer(String namePrefix, boolean toLowerCase) {
-    this(System.getenv(), namePrefix, toLowerCase);
+    this.index = SYSTEM_INDEXES.computeIfAbsent(new IndexKey(namePrefix, toLowerCase), key -> buildIndex(System.getenv(), namePrefix, toLowerCase));
   }
 
   /**
@@ -63,33 +77,63 @@ public class EnvironmentVariablesGatherer<P> implements ParameterGatherer<P> {
    * @param toLowerCase If true all environment variable names will be converted to lower case before passing to Jackson.
    */
   public EnvironmentVariablesGatherer(Map<String, String> map,  String namePrefix, boolean toLowerCase) {
-    this.map = new HashMap<>();
+    this.index = buildIndex(map, namePrefix, toLowerCase);
+  }
+  
+  /**
+   * Normalise the names of the environment variables, and filter them by the prefix.
+   * 
+   * @param map The environment variables.
+   * @param namePrefix The prefix that can be used to filter environment variables.
+   * @param toLowerCase If true all environment variable names will be converted to lower case.
+   * @return An immutable map of normalised names, with the prefix removed, to values.
+   */
+  static Map<String, String> buildIndex(Map<String, String> map,  String namePrefix, boolean toLowerCase) {
+    Map<String, String> result = new HashMap<>();
     for (Entry<String, String> entry : map.entrySet()) {
-    String key = entry.getKey()
-        .replace("__", "\u0000") // temporary placeholder for double underscore
-        .replace("_", ".")       // now safely turn remaining single underscores into dots
-        .replace("\u0000", "_"); // restore doubles as single underscores
+      String key = entry.getKey()
+          .replace("__", "\u0000") // temporary placeholder for double underscore
+          .replace("_", ".")       // now safely turn remaining single underscores into dots
+          .replace("\u0000", "_"); // restore doubles as single underscores
       if (toLowerCase) {
         key = key.toLowerCase();
       }
-      this.map.put(key, entry.getValue());
+      if (namePrefix != null && !namePrefix.isEmpty()) {
+        if (!key.startsWith(namePrefix)) {
+          continue;
+        }
+        key = key.substring(namePrefix.length());
+      }
+      if (entry.getValue() != null) {
+        result.put(key, entry.getValue());
+      }
     }
-    this.namePrefix = namePrefix;
+    return Map.copyOf(result);
   }
   
   @Override
   public P gatherParameters(Params4JSpi spi, P base) throws IOException {
-    ObjectReader reader = spi.getPropsMapper()
-            .readerForUpdating(base)
-            .with(new JavaPropsSchema().withPathSeparatorEscapeChar('\\'))
-            ;
-    
-    byte[] props = spi.prepareProperties("Environment variables", map.entrySet(), Entry::getKey, Entry::getValue, namePrefix);
-    if (props.length > 0) {
-      return reader.readValue(props);
-    } else {
+    ObjectNode tree = gatherOverlay(spi);
+    if (tree.isEmpty()) {
       return base;
     }
+    ObjectReader reader = spi.getPropsMapper().readerForUpdating(base);
+    return reader.readValue(tree);
+  }
+
+  @Override
+  public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+    return spi.prepareTree("Environment variables", index.entrySet(), Entry::getKey, Entry::getValue, null);
+  }
+
+  /**
+   * The environment is captured when the gatherer is constructed and cannot change.
+   * 
+   * @return the index of the captured environment.
+   */
+  @Override
+  public Object getFingerprint() {
+    return index;
   }
 
   @Override
@@ -5,55 +5,142 @@
 package uk.co.spudsoft.params4j.impl;
 
 import java.io.IOException;
-import java.nio.file.FileSystems;
 import java.nio.file.Path;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-
-import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import uk.co.spudsoft.params4j.DebouncePolicy;
+import uk.co.spudsoft.params4j.WatchMode;
 
 /**
  * A convenience class for performing file watches on multiple dirs with a delay after each change to allow batches of changes to complete before being processed.
  * 
  * Changes to files often come in multiple operations and a quick file watcher can end up either performing unnecessary processing or processing inconsistent files.
- * To avoid this FileWatcher introduces a small delay (2s) after any file notifications before processing the change - if another change comes in during the delay the timer
- * restarts - files have to be stable for 2s.
+ * To avoid this FileWatcher introduces a small delay after any file notifications before processing the change - if another change comes in during the delay the timer
+ * restarts - files have to be stable for the quiet period of the {@link DebouncePolicy} (2s by default).
+ * The timer is not restarted beyond the maximum wait of the policy, so a continuous stream of changes cannot postpone processing forever.
+ * 
+ * The paths that changed during the delay are collected and passed to the callback as a single set.
+ * If the events for a directory were lost (overflow) the directory itself is included in the set.
+ * 
+ * FileWatchers do not have their own threads or WatchServices, all the FileWatchers in the JVM share a single {@link WatchHub} per FileSystem
+ * and a single scheduler thread that times the quiet periods.
+ * The callbacks are not made on the scheduler thread, each FileWatcher hands its changes to its own {@link LatestWinsDispatcher},
+ * so the callback is never called concurrently with itself and a slow callback does not delay the callbacks of any other FileWatcher.
+ * Changes that are seen whilst the callback is running are combined and delivered as one set when it returns.
+ * 
+ * Directories written by the Kubernetes atomic writer are recognised (see {@link AtomicWriterLayout}):
+ * changes to the hidden generation directories are ignored and the swap of the "..data" symlink is delivered immediately, without waiting for the quiet period.
+ * 
+ * Each watched path may have filters identifying the changes that are relevant, changes that are not relevant are counted and dropped
+ * (so they do not delay the delivery of relevant changes either).
+ * 
+ * The number of directories registered with the WatchService can be limited (each one consumes an inotify watch on Linux, and these are limited per user).
+ * The budget is checked against the number of directories registered by all the FileWatchers in the JVM (see {@link #getTotalWatchCount()}),
+ * directories that are already registered by another FileWatcher do not use any more of the budget.
+ * When the budget is exhausted further directories are polled instead, each by its own {@link DirectoryPoller}.
+ * Directories are registered in the order that they are watched, so in a deep hierarchy the upper levels are watched natively and the deepest levels are polled;
+ * no attempt is made to collapse a subtree into a single watch on its root, because a watch on a directory does not report changes within its subdirectories.
+ * 
+ * Depending on the {@link WatchMode} directories may instead be polled by a {@link DirectoryPoller}, which compares the attributes of the files in the directory.
  * 
  * @author jtalbut
  */
 public class FileWatcher {
   
   private static final Logger logger = LoggerFactory.getLogger(FileWatcher.class);
-
-  private static final int NOTIFICATION_DELAY_S = 2;
-  private static final int DEFAULT_DELAY_S = 3600;
   
-  private final AtomicReference<Thread> threadRef = new AtomicReference<>();
-  private final WatchService watcher;
-  private final Runnable callback;
-  private Map<Path, WatchKey> watchKeys = new HashMap<>();
+  /**
+   * The default interval between polls of a directory, when polling is in use and a change has recently been seen.
+   */
+  public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(2);
+
+  /**
+   * The default maximum interval between polls of a directory, when polling is in use.
+   */
+  public static final Duration DEFAULT_MAX_POLL_INTERVAL = Duration.ofSeconds(30);
+
+  private static final Predicate<Path> ALL = path -> true;
+
+  private final LatestWinsDispatcher<Set<Path>> dispatcher;
+  private final Debouncer debouncer;
+  private final WatchMode watchMode;
+  private final Duration pollInterval;
+  private final Duration maxPollInterval;
+  private final Map<Path, Set<Predicate<Path>>> watchedPaths = new ConcurrentHashMap<>();
+  private final AtomicLong suppressedEvents = new AtomicLong();
+  private final Map<Path, DirectoryPoller> pollers = new ConcurrentHashMap<>();
+  private final Set<Path> nativeWatches = ConcurrentHashMap.newKeySet();
+  private final int watchBudget;
+  private volatile boolean started;
+  private volatile boolean closed;
+  private ScheduledFuture<?> scheduled;
 
   /**
    * Constructor.
    * @param callback The Runnable that will be called when any of the watched paths have changed and the changes have stabilized.
    */
   public FileWatcher(Runnable callback) {
-    WatchService tempWatchService = null;
-    try {
-      tempWatchService = FileSystems.getDefault().newWatchService();
-    } catch (IOException ex) {
-      logger.error("Failed to create watch service, configuration changes will not be noticed: ", ex);              
+    this(changed -> callback.run());
+  }
+
+  /**
+   * Constructor.
+   * @param callback The Consumer that will be called with the changed paths when any of the watched paths have changed and the changes have stabilized.
+   */
+  public FileWatcher(Consumer<Set<Path>> callback) {
+    this(callback, DebouncePolicy.DEFAULT);
+  }
+
+  /**
+   * Constructor.
+   * @param callback The Consumer that will be called with the changed paths when any of the watched paths have changed and the changes have stabilized.
+   * @param debouncePolicy The rules governing how long to wait for changes to stabilize.
+   */
+  public FileWatcher(Consumer<Set<Path>> callback, DebouncePolicy debouncePolicy) {
+    this(callback, debouncePolicy, WatchMode.Auto, null, null, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Constructor.
+   * @param callback The Consumer that will be called with the changed paths when any of the watched paths have changed and the changes have stabilized.
+   * @param debouncePolicy The rules governing how long to wait for changes to stabilize.
+   * @param watchMode The mechanism used to detect changes, if null {@link WatchMode#Auto} is used.
+   * @param pollInterval The interval between polls after a change has been seen, if null {@link #DEFAULT_POLL_INTERVAL} is used.
+   * @param maxPollInterval The longest interval between polls, if null {@link #DEFAULT_MAX_POLL_INTERVAL} is used.
+   * @param watchBudget The maximum number of directories that may be registered with WatchServices by all FileWatchers in the JVM, any further directories are polled.
+   */
+  public FileWatcher(Consumer<Set<Path>> callback, DebouncePolicy debouncePolicy, WatchMode watchMode, Duration pollInterval, Duration maxPollInterval, int watchBudget) {
+    this.debouncer = new Debouncer(Objects.requireNonNullElse(debouncePolicy, DebouncePolicy.DEFAULT));
+    this.dispatcher = new LatestWinsDispatcher<>(SharedExecutors.callbacks(), changed -> {
+      if (!closed) {
+        callback.accept(changed);
+      }
+    }, FileWatcher::union, "Callback for changes");
+    this.watchMode = Objects.requireNonNullElse(watchMode, WatchMode.Auto);
+    this.pollInterval = Objects.requireNonNullElse(pollInterval, DEFAULT_POLL_INTERVAL);
+    this.maxPollInterval = Objects.requireNonNullElse(maxPollInterval, DEFAULT_MAX_POLL_INTERVAL);
+    if (this.pollInterval.isNegative() || this.pollInterval.isZero()) {
+      throw new IllegalArgumentException("The poll interval must be positive");
     }
-    this.watcher = tempWatchService;
-    this.callback = callback;
+    if (watchBudget < 0) {
+      throw new IllegalArgumentException("The watch budget must not be negative");
+    }
+    this.watchBudget = watchBudget;
   }
 
   /**
@@ -62,77 +149,315 @@ public class FileWatcher {
    * @throws IOException if something goes wrong.
    */
   public void watch(Path path) throws IOException {
-    if (watcher != null && !watchKeys.containsKey(path)) {
-      WatchKey key = path.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
-      watchKeys.put(path, key);
+    watch(path, null);
+  }
+
+  /**
+   * Add a path to the list of paths being watched, with a filter that identifies the relevant changes.
+   * <P>
+   * Changes to entries in the path that are not accepted by any filter for the path are counted and dropped.
+   * 
+   * @param path The path to add to the list of watched paths.
+   * @param filter Predicate that returns true for the entries of the path that are relevant, if null all entries are relevant.
+   * @throws IOException if something goes wrong.
+   */
+  public void watch(Path path, Predicate<Path> filter) throws IOException {
+    if (closed) {
+      logger.trace("Not watching {}, the FileWatcher has been closed", path);
+      return;
+    }
+    Set<Predicate<Path>> filters = watchedPaths.get(path);
+    if (filters == null) {
+      synchronized (nativeWatches) {
+        filters = watchedPaths.get(path);
+        if (filters == null) {
+          register(path);
+          filters = watchedPaths.computeIfAbsent(path, p -> ConcurrentHashMap.newKeySet());
+        }
+      }
+    }
+    filters.add(filter == null ? ALL : filter);
+  }
+  
+  private void register(Path path) throws IOException {
+    if (watchMode == WatchMode.Polling) {
+      poll(path);
+    } else {
+      try {
+        if (WatchHub.register(path, this, watchBudget)) {
+          nativeWatches.add(path);
+        } else if (watchMode == WatchMode.Auto) {
+          logger.debug("Watch budget ({}) exhausted, {} will be polled", watchBudget, path);
+          poll(path);
+        } else {
+          logger.warn("Watch budget ({}) exhausted, {} will not be watched", watchBudget, path);
+        }
+      } catch (IOException | UnsupportedOperationException ex) {
+        if (watchMode == WatchMode.Native) {
+          throw ex;
+        }
+        logger.warn("Unable to watch {} ({}), it will be polled instead", path, ex.getMessage());
+        poll(path);
+      }
+    }
+  }
+  
+  /**
+   * Stop watching a path.
+   * @param path The path to remove from the list of watched paths.
+   * @throws IOException if something goes wrong.
+   */
+  public void unwatch(Path path) throws IOException {
+    synchronized (nativeWatches) {
+      if (watchedPaths.remove(path) != null) {
+        if (nativeWatches.remove(path)) {
+          WatchHub.unregister(path, this);
+        }
+        DirectoryPoller poller = pollers.remove(path);
+        if (poller != null) {
+          poller.stop();
+        }
+        logger.debug("Stopped watching {}", path);
+      }
+    }
+  }
+  
+  /**
+   * Stop watching all paths and stop delivering changes.
+   * <P>
+   * Any directories that are no longer watched by any FileWatcher are cancelled with the WatchService, 
+   * and if no directories remain the WatchService is closed.
+   * The FileWatcher cannot be restarted.
+   */
+  public void close() {
+    closed = true;
+    started = false;
+    synchronized (this) {
+      if (scheduled != null) {
+        scheduled.cancel(false);
+        scheduled = null;
+      }
+    }
+    for (Path path : new ArrayList<>(watchedPaths.keySet())) {
+      try {
+        unwatch(path);
+      } catch (Throwable ex) {
+        logger.warn("Failed to stop watching {}: ", path, ex);
+      }
+    }
+  }
+  
+  /**
+   * Called by the {@link WatchHub} or a {@link DirectoryPoller} when a watched path has been deleted.
+   * <P>
+   * The path is forgotten (releasing its share of the watch budget), it will be watched again if a gatherer asks for it to be watched.
+   * 
+   * @param path The path that has been deleted.
+   */
+  void onInvalidated(Path path) {
+    synchronized (nativeWatches) {
+      watchedPaths.remove(path);
+      nativeWatches.remove(path);
+      DirectoryPoller poller = pollers.remove(path);
+      if (poller != null) {
+        poller.stop();
+      }
     }
+    logger.debug("{} has been deleted and is no longer watched", path);
+  }
+  
+  /**
+   * Get the number of paths that are registered with a WatchService on behalf of this FileWatcher.
+   * <P>
+   * This is this FileWatcher's share of the usage of the watch budget, directories that are being polled are not included.
+   * 
+   * @return the number of paths that are registered with a WatchService on behalf of this FileWatcher.
+   */
+  public int getWatchCount() {
+    return nativeWatches.size();
+  }
+  
+  /**
+   * Get the number of directories that are registered with a WatchService by all FileWatchers in the JVM.
+   * <P>
+   * This is the usage that is compared to the watch budget, a directory that is watched by more than one FileWatcher is only counted once.
+   * 
+   * @return the number of directories that are registered with a WatchService by all FileWatchers in the JVM.
+   */
+  public static int getTotalWatchCount() {
+    return WatchHub.getRegistrationCount();
+  }
+  
+  private void poll(Path path) {
+    pollers.computeIfAbsent(path, p -> {
+      DirectoryPoller poller = new DirectoryPoller(p, this, pollInterval, maxPollInterval);
+      poller.start();
+      return poller;
+    });
+  }
+  
+  /**
+   * Get the paths that are being polled rather than watched by a WatchService.
+   * @return the paths that are being polled rather than watched by a WatchService.
+   */
+  public Set<Path> getPolledPaths() {
+    return Collections.unmodifiableSet(pollers.keySet());
   }
 
   /**
    * Start monitoring files.
    * 
-   * Do not call this method more than once - it will create multiple threads that do the same thing.
+   * Changes that are seen before this method is called are delivered once it has been called.
    * 
    * Monitoring will only begin if at least one watch path has been set to watch.
    * 
    * @return true if monitoring started.
    */
   public boolean start() {
-    if (!watchKeys.isEmpty()) {
-      if (threadRef.get() == null) {
-        Thread thread = new Thread(this::eventLoop, "Params4JFileWatcher");
-        Thread oldThread = threadRef.compareAndExchange(null, thread);
-        if (oldThread == null) {
-          thread.start();
-        }
-      }
+    if (!closed && !watchedPaths.isEmpty()) {
+      started = true;
+      schedule();
       return true;
     } else {
       return false;
     }
   }
-
-  private void eventLoop() {
-
-    int pollDelay = DEFAULT_DELAY_S;
-    
-    /**
-     * This loop has two non-standard features:
-     * 1. It doesn't care what has changed, the caller will run a full gather afterwards so it doesn't matter.
-     * 2. It waits as bit after a filesystem notification before notifying the client to allow batches of notifications to complete.
-     */
-    while (true) {
-
-      // Wait for key to be signaled
-      WatchKey key;
-      try {
-        key = watcher.poll(pollDelay, TimeUnit.SECONDS);
-      } catch (InterruptedException x) {
-        return;
+  
+  /**
+   * Called by the {@link WatchHub} or a {@link DirectoryPoller} when any of the watched paths have changed.
+   * @param changed The paths that have changed.
+   */
+  void onEvents(Collection<Path> changed) {
+    logger.trace("Events: {}", changed);
+    if (closed) {
+      return;
+    }
+    List<Path> relevant = new ArrayList<>(changed.size());
+    boolean swapped = false;
+    for (Path path : changed) {
+      if (AtomicWriterLayout.isDataLink(path)) {
+        swapped = true;
+        relevant.add(path);
+      } else if (isRelevant(path)) {
+        relevant.add(path);
+      } else {
+        suppressedEvents.incrementAndGet();
       }
-      
-      // There are now three possibilities:
-      // 1. A new notification has come in.
-      //    key != null -> set pollDelay to NOTIFICATION_DELAY_S.
-      // 2. The timeout has been hit for no useful reason.
-      //    key == null && pollDelay != NOTIFICATION_DELAY_S -> spin round
-      // 3. The timeout has been hit after the post-notification delay.
-      //    key == null && pollDelay == NOTIFICATION_DELAY_S -> notify and set pollDelay to default
-      logger.trace("Poll completed, key: {}, pollDelay: {}", key, pollDelay);
-
-      if (key == null) {
-        if (NOTIFICATION_DELAY_S == pollDelay) {
-          callback.run();
-          pollDelay = DEFAULT_DELAY_S;
+    }
+    if (relevant.isEmpty()) {
+      return;
+    }
+    debouncer.event(System.nanoTime(), relevant, swapped);
+    schedule();
+  }
+  
+  private boolean isRelevant(Path path) {
+    if (watchedPaths.containsKey(path)) {
+      // The watched directory itself (events lost or directory created/deleted)
+      return true;
+    }
+    if (AtomicWriterLayout.isIgnorable(path)) {
+      return false;
+    }
+    Set<Predicate<Path>> filters = path.getParent() == null ? null : watchedPaths.get(path.getParent());
+    if (filters == null || filters.contains(ALL)) {
+      return true;
+    }
+    for (Predicate<Path> filter : filters) {
+      try {
+        if (filter.test(path)) {
+          return true;
         }
-      } else {
-        // Drain the events, but don't care what they are (they can't all be OVERFLOW)
-        key.pollEvents();
-        pollDelay = NOTIFICATION_DELAY_S;
-        key.reset();
+      } catch (Throwable ex) {
+        logger.warn("Filter {} failed on {}: ", filter, path, ex);
+        return true;
       }
     }
+    logger.trace("Change to {} is not relevant", path);
+    return false;
+  }
+
+  /**
+   * Get the number of change events that have been dropped because they could not affect the parameters.
+   * @return the number of change events that have been dropped because they could not affect the parameters.
+   */
+  public long getSuppressedEventCount() {
+    return suppressedEvents.get();
+  }
+  
+  private synchronized void schedule() {
+    if (!started) {
+      return;
+    }
+    long deadline = debouncer.deadline();
+    if (deadline == Debouncer.IDLE) {
+      return;
+    }
+    if (scheduled != null) {
+      scheduled.cancel(false);
+    }
+    scheduled = WatchHub.scheduler().schedule(this::deliver, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+  }
+  
+  private static Set<Path> union(Set<Path> older, Set<Path> newer) {
+    Set<Path> result = new HashSet<>(older);
+    result.addAll(newer);
+    return result;
+  }
+  
+  /**
+   * Pass a set of changes to the callback without waiting for a quiet period.
+   * <P>
+   * The callback is called on the same executor as for debounced changes, and never concurrently with itself.
+   * 
+   * @param changed The paths that have changed, may be empty.
+   */
+  void deliverNow(Set<Path> changed) {
+    if (!closed) {
+      dispatcher.offer(changed);
+    }
+  }
+  
+  private void deliver() {
+    if (closed) {
+      return;
+    }
+    long now = System.nanoTime();
+    long deadline = debouncer.deadline();
+    if (deadline == Debouncer.IDLE) {
+      return;
+    } else if (deadline - now > 0) {
+      // Woken early (the deadline has moved since this delivery was scheduled)
+      schedule();
+      return;
+    }
+    Set<Path> changed = debouncer.fire(now);
+    logger.debug("Changed paths: {}", changed);
+    dispatcher.offer(changed);
+  }
+
+  /**
+   * Get the time between the first change in the most recent batch and the callback being called.
+   * @return the time between the first change in the most recent batch and the callback being called.
+   */
+  public Duration getLastLatency() {
+    return debouncer.getLastLatency();
+  }
 
+  /**
+   * Get the longest time between the first change in a batch and the callback being called.
+   * @return the longest time between the first change in a batch and the callback being called.
+   */
+  public Duration getMaxLatency() {
+    return debouncer.getMaxLatency();
+  }
+
+  /**
+   * Get the quiet period currently in use, which will differ from the configured quiet period if the policy is adaptive.
+   * @return the quiet period currently in use.
+   */
+  public Duration getEffectiveQuietPeriod() {
+    return debouncer.getEffectiveQuietPeriod();
   }
 
 }
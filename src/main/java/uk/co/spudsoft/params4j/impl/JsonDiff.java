@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Structural comparison of two JSON trees, producing the JSON pointers of the values that differ.
+ * <P>
+ * Objects are compared field by field and arrays are compared element by element, recursively.
+ * Any other difference (including a change of node type) is reported at the pointer of the value that differs, without descending any further.
+ *
+ * @author jtalbut
+ */
+public final class JsonDiff {
+
+  private JsonDiff() {
+  }
+
+  /**
+   * Compare two JSON trees.
+   *
+   * @param previous The previous tree, may be null.
+   * @param current The current tree, may be null.
+   * @return The JSON pointers of each value that differs, in document order (fields of previous before fields only in current).
+   * If the trees are equal the list will be empty; if either tree is null (but not both) the list will contain the single pointer "".
+   */
+  public static List<String> diff(JsonNode previous, JsonNode current) {
+    List<String> result = new ArrayList<>();
+    diff(result, "", previous, current);
+    return result;
+  }
+
+  private static void diff(List<String> result, String pointer, JsonNode previous, JsonNode current) {
+    if (Objects.equals(previous, current)) {
+      return;
+    }
+    if (previous != null && current != null && previous.isObject() && current.isObject()) {
+      Set<String> names = new LinkedHashSet<>();
+      for (Map.Entry<String, JsonNode> field : previous.properties()) {
+        names.add(field.getKey());
+      }
+      for (Map.Entry<String, JsonNode> field : current.properties()) {
+        names.add(field.getKey());
+      }
+      for (String name : names) {
+        diff(result, pointer + "/" + escape(name), previous.get(name), current.get(name));
+      }
+    } else if (previous != null && current != null && previous.isArray() && current.isArray()) {
+      int size = Math.max(previous.size(), current.size());
+      for (int i = 0; i < size; ++i) {
+        diff(result, pointer + "/" + i, previous.get(i), current.get(i));
+      }
+    } else {
+      result.add(pointer);
+    }
+  }
+
+  private static String escape(String name) {
+    if (name.indexOf('~') < 0 && name.indexOf('/') < 0) {
+      return name;
+    }
+    return name.replace("~", "~0").replace("/", "~1");
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import java.util.Map;
+
+/**
+ * Lookup of JSON pointers in the JSON representation of the parameters.
+ * <P>
+ * Property names in the sources are bound without regard to case, so for consistency a pointer that does not match exactly
+ * has each segment matched without regard to case.
+ *
+ * @author jtalbut
+ */
+public final class JsonPointers {
+
+  private JsonPointers() {
+  }
+
+  /**
+   * Find the node identified by a JSON pointer.
+   *
+   * @param root The root of the tree to search, may be null.
+   * @param pointer The JSON pointer, for example "/database/primary".
+   * @return The node identified by the pointer, or a {@link MissingNode} if there is no such node.
+   * @throws IllegalArgumentException if the pointer is not a valid JSON pointer.
+   */
+  public static JsonNode find(JsonNode root, String pointer) {
+    if (root == null) {
+      return MissingNode.getInstance();
+    }
+    JsonPointer ptr = JsonPointer.compile(pointer);
+    JsonNode exact = root.at(ptr);
+    if (!exact.isMissingNode()) {
+      return exact;
+    }
+    JsonNode current = root;
+    for (; !ptr.matches(); ptr = ptr.tail()) {
+      String name = ptr.getMatchingProperty();
+      JsonNode next = current.get(name);
+      if (next == null && current.isArray() && ptr.mayMatchElement()) {
+        next = current.get(ptr.getMatchingIndex());
+      }
+      if (next == null && current.isObject()) {
+        for (Map.Entry<String, JsonNode> field : current.properties()) {
+          if (field.getKey().equalsIgnoreCase(name)) {
+            next = field.getValue();
+            break;
+          }
+        }
+      }
+      if (next == null) {
+        return MissingNode.getInstance();
+      }
+      current = next;
+    }
+    return current;
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers values to a single listener on an Executor, such that the listener only ever sees the latest value.
+ * <P>
+ * At most one delivery to the listener is running or queued on the executor at any time.
+ * Values that are offered whilst a delivery is in progress are combined (by default the newer value replaces the older one)
+ * and delivered when the listener returns, so a slow listener never builds up a backlog and never sees values out of order.
+ * <P>
+ * Each listener has its own dispatcher, so a listener that is slow or fails does not affect any other listener.
+ *
+ * @author jtalbut
+ * 
+ * @param <T> The type of value delivered to the listener.
+ */
+final class LatestWinsDispatcher<T> {
+
+  private static final Logger logger = LoggerFactory.getLogger(LatestWinsDispatcher.class);
+  
+  private final Executor executor;
+  private final Consumer<T> listener;
+  private final BinaryOperator<T> combiner;
+  private final String description;
+  
+  private boolean pending;
+  private T value;
+  private boolean running;
+
+  /**
+   * Get the executor used when no executor has been configured.
+   * <P>
+   * On JDK 21+ this starts a virtual thread for each delivery, on earlier JDKs it is a cached pool of daemon threads.
+   * 
+   * @return the executor used when no executor has been configured.
+   */
+  static Executor defaultExecutor() {
+    return SharedExecutors.notifications();
+  }
+
+  /**
+   * Constructor.
+   * @param executor The executor on which to call the listener.
+   * @param listener The listener.
+   * @param combiner Function to combine an undelivered value with a newer value, if null the newer value replaces the older value.
+   * @param description Description of the listener, used for logging.
+   */
+  LatestWinsDispatcher(Executor executor, Consumer<T> listener, BinaryOperator<T> combiner, String description) {
+    this.executor = executor;
+    this.listener = listener;
+    this.combiner = combiner;
+    this.description = description;
+  }
+  
+  /**
+   * Offer a value for delivery to the listener.
+   * @param newValue The value to deliver.
+   */
+  void offer(T newValue) {
+    synchronized (this) {
+      if (pending && combiner != null) {
+        value = combiner.apply(value, newValue);
+      } else {
+        value = newValue;
+      }
+      pending = true;
+      if (running) {
+        return;
+      }
+      running = true;
+    }
+    try {
+      executor.execute(this::drain);
+    } catch (RejectedExecutionException ex) {
+      logger.warn("Unable to deliver change to {}: ", description, ex);
+      synchronized (this) {
+        running = false;
+      }
+    }
+  }
+  
+  private void drain() {
+    while (true) {
+      T delivery;
+      synchronized (this) {
+        if (!pending) {
+          running = false;
+          return;
+        }
+        delivery = value;
+        value = null;
+        pending = false;
+      }
+      try {
+        listener.accept(delivery);
+      } catch (Throwable ex) {
+        logger.warn("{} failed: ", description, ex);
+      }
+    }
+  }
+  
+}
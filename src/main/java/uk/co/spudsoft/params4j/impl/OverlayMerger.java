@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deep merge of JSON trees using the same rules that Params4J uses when it updates a parameters object.
+ * <P>
+ * The ObjectMappers used by Params4J are configured with {@link com.fasterxml.jackson.databind.ObjectMapper#setDefaultMergeable(java.lang.Boolean) setDefaultMergeable(true)},
+ * which results in the following behaviour when an overlay is merged into a target:
+ * <ul>
+ * <li>Objects are merged recursively.
+ * <li>Arrays are appended to.
+ * <li>Any other value (including null) replaces the value in the target.
+ * </ul>
+ * <P>
+ * Overlays are bound with case insensitive property names, so an instance created for the type of the parameters object
+ * matches the names of bean properties without regard to case (the field name that was seen first is retained).
+ * Only the names of bean properties are matched in this way, the keys of Maps (and the fields of anything that is not a bean) must match exactly,
+ * as they would when the overlays were bound one after another.
+ * The static {@link #merge(com.fasterxml.jackson.databind.node.ObjectNode, com.fasterxml.jackson.databind.node.ObjectNode)} method, 
+ * for use when the type is not known, matches all field names exactly.
+ * <P>
+ * Nodes from the overlay are always copied, the overlay is never altered and the target never references any part of the overlay.
+ *
+ * @author jtalbut
+ */
+public final class OverlayMerger {
+
+  private static final OverlayMerger EXACT = new OverlayMerger(null, null);
+  
+  private final ObjectMapper mapper;
+  private final JavaType type;
+  private final Map<JavaType, Map<String, BeanPropertyDefinition>> beanProperties = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   * 
+   * @param mapper The mapper that will be used to bind the merged tree, used to find the properties of each bean type.
+   * @param type The type that the merged tree will be bound to, if null all field names must match exactly.
+   */
+  public OverlayMerger(ObjectMapper mapper, JavaType type) {
+    this.mapper = mapper;
+    this.type = type;
+  }
+
+  /**
+   * Merge the overlay into the target, matching all field names exactly.
+   *
+   * @param target The ObjectNode that will be updated.
+   * @param overlay The ObjectNode containing the values to be merged into the target.
+   * @return The target.
+   */
+  public static ObjectNode merge(ObjectNode target, ObjectNode overlay) {
+    return EXACT.mergeOverlay(target, overlay);
+  }
+
+  /**
+   * Merge the overlay into the target, matching the names of bean properties without regard to case.
+   *
+   * @param target The ObjectNode that will be updated.
+   * @param overlay The ObjectNode containing the values to be merged into the target.
+   * @return The target.
+   */
+  public ObjectNode mergeOverlay(ObjectNode target, ObjectNode overlay) {
+    return merge(target, overlay, type);
+  }
+
+  private ObjectNode merge(ObjectNode target, ObjectNode overlay, JavaType targetType) {
+    Map<String, BeanPropertyDefinition> properties = getBeanProperties(targetType);
+    Map<String, String> foldedNames = null;
+    for (Map.Entry<String, JsonNode> field : overlay.properties()) {
+      String name = field.getKey();
+      JsonNode existing = target.get(name);
+      JavaType valueType = null;
+      if (properties == null) {
+        valueType = targetType == null ? null : targetType.getContentType();
+      } else {
+        String folded = name.toLowerCase(Locale.ROOT);
+        BeanPropertyDefinition property = properties.get(folded);
+        if (property != null) {
+          valueType = property.getPrimaryType();
+          if (existing == null && !target.isEmpty()) {
+            if (foldedNames == null) {
+              foldedNames = foldNames(target);
+            }
+            String match = foldedNames.get(folded);
+            if (match == null) {
+              foldedNames.put(folded, name);
+            } else {
+              name = match;
+              existing = target.get(name);
+            }
+          }
+        }
+      }
+      target.set(name, mergeValue(existing, field.getValue(), valueType));
+    }
+    return target;
+  }
+
+  /**
+   * Get the properties of a bean type, keyed by their lower case names.
+   * @param beanType The type.
+   * @return the properties of the type, or null if the type is not a bean (or is not known).
+   */
+  private Map<String, BeanPropertyDefinition> getBeanProperties(JavaType beanType) {
+    if (beanType == null || mapper == null
+            || beanType.isContainerType() || beanType.isReferenceType() || beanType.isJavaLangObject() 
+            || beanType.isPrimitive() || beanType.isEnumType() || JsonNode.class.isAssignableFrom(beanType.getRawClass())) {
+      return null;
+    }
+    return beanProperties.computeIfAbsent(beanType, t -> {
+      BeanDescription description = mapper.getDeserializationConfig().introspect(t);
+      Map<String, BeanPropertyDefinition> result = new HashMap<>();
+      for (BeanPropertyDefinition property : description.findProperties()) {
+        result.putIfAbsent(property.getName().toLowerCase(Locale.ROOT), property);
+      }
+      return Collections.unmodifiableMap(result);
+    });
+  }
+
+  private static Map<String, String> foldNames(ObjectNode node) {
+    Map<String, String> result = new HashMap<>(node.size() * 2);
+    for (Map.Entry<String, JsonNode> field : node.properties()) {
+      String name = field.getKey();
+      result.putIfAbsent(name.toLowerCase(Locale.ROOT), name);
+    }
+    return result;
+  }
+
+  private JsonNode mergeValue(JsonNode existing, JsonNode value, JavaType valueType) {
+    if (existing instanceof ObjectNode existingObject && value instanceof ObjectNode valueObject) {
+      return merge(existingObject, valueObject, valueType);
+    } else if (existing instanceof ArrayNode existingArray && value instanceof ArrayNode valueArray) {
+      for (JsonNode item : valueArray) {
+        existingArray.add(item.deepCopy());
+      }
+      return existingArray;
+    } else {
+      return value.deepCopy();
+    }
+  }
+
+}
@@ -12,10 +12,16 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import uk.co.spudsoft.params4j.DebouncePolicy;
+import uk.co.spudsoft.params4j.ReloadPolicy;
+import uk.co.spudsoft.params4j.WatchMode;
 import uk.co.spudsoft.params4j.FileType;
 import uk.co.spudsoft.params4j.ParameterGatherer;
 import uk.co.spudsoft.params4j.Params4J;
@@ -39,6 +45,16 @@ public class Params4JFactoryImpl<P> implements Params4JFactory<P> {
   private List<com.fasterxml.jackson.databind.Module> customJsonModules = new ArrayList<>();
   private List<MixIn> mixIns = new ArrayList<>();
   private ObjectMapper yamlMapper;
+  private boolean treeGathering;
+  private Executor gatherExecutor;
+  private boolean fingerprintOnly;
+  private DebouncePolicy debouncePolicy;
+  private WatchMode watchMode;
+  private Duration pollInterval;
+  private Duration maxPollInterval;
+  private Executor notificationExecutor;
+  private int watchBudget = Integer.MAX_VALUE;
+  private ReloadPolicy reloadPolicy;
   
   @Override
   public Params4JFactory<P> withConstructor(Supplier<P> supplier) {
@@ -91,11 +107,71 @@ public class Params4JFactoryImpl<P> implements Params4JFactory<P> {
     return this;
   }
 
+  @Override
+  public Params4JFactory<P> withTreeGathering(boolean treeGathering) {
+    this.treeGathering = treeGathering;
+    return this;
+  }
+
+  @Override
+  public Params4JFactory<P> withGatherExecutor(Executor executor) {
+    this.gatherExecutor = executor;
+    return this;
+  }
+
+  @Override
+  public Params4JFactory<P> withFingerprintOnly(boolean fingerprintOnly) {
+    this.fingerprintOnly = fingerprintOnly;
+    return this;
+  }
+
+  @Override
+  public Params4JFactory<P> withDebouncePolicy(DebouncePolicy debouncePolicy) {
+    this.debouncePolicy = debouncePolicy;
+    return this;
+  }
+
+  @Override
+  public Params4JFactory<P> withWatchMode(WatchMode watchMode) {
+    this.watchMode = watchMode;
+    return this;
+  }
+
+  @Override
+  public Params4JFactory<P> withPollInterval(Duration pollInterval, Duration maxPollInterval) {
+    this.pollInterval = pollInterval;
+    this.maxPollInterval = maxPollInterval;
+    return this;
+  }
+
+  @Override
+  public Params4JFactory<P> withNotificationExecutor(Executor executor) {
+    this.notificationExecutor = executor;
+    return this;
+  }
+
+  @Override
+  public Params4JFactory<P> withWatchBudget(int watchBudget) {
+    this.watchBudget = watchBudget;
+    return this;
+  }
+
+  @Override
+  public Params4JFactory<P> withReloadPolicy(ReloadPolicy reloadPolicy) {
+    this.reloadPolicy = reloadPolicy;
+    return this;
+  }
+
   @Override
   public Params4JFactory<P> withResourceGatherer(String resource, FileType fileType) {
     return withGatherer(new ResourceGatherer<>(resource, fileType));
   }
 
+  @Override
+  public Params4JFactory<P> withResourceGatherer(ClassLoader classLoader, String resource, FileType fileType, boolean allCopies, boolean shared) {
+    return withGatherer(new ResourceGatherer<>(classLoader, resource, fileType, allCopies, shared));
+  }
+
   @Override
   public Params4JFactory<P> withDirGatherer(File dir, FileType... fileTypes) {
     return withGatherer(new DirGatherer<>(dir, fileTypes));
@@ -106,6 +182,11 @@ public class Params4JFactoryImpl<P> implements Params4JFactory<P> {
     return withGatherer(new EnvironmentVariablesGatherer<>(namePrefix, toLowerCase));
   }
 
+  @Override
+  public Params4JFactory<P> withSchemaEnvironmentVariablesGatherer(String namePrefix, List<Pattern> terminalClasses, List<Pattern> undocumentedClasses) {
+    return withGatherer(new SchemaEnvironmentVariablesGatherer<>(namePrefix, terminalClasses, undocumentedClasses));
+  }
+
   @Override
   public Params4JFactory<P> withSystemPropertiesGatherer(String namePrefix) {
     return withGatherer(new SystemPropertiesGatherer<>(namePrefix));
@@ -122,6 +203,21 @@ public class Params4JFactoryImpl<P> implements Params4JFactory<P> {
     return withGatherer(new SecretsGatherer<>(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset));
   }
   
+  @Override
+  public Params4JFactory<P> withSecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset, int readConcurrency) {
+    return withGatherer(new SecretsGatherer<>(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset, readConcurrency));
+  }
+  
+  @Override
+  public Params4JFactory<P> withSecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset, int readConcurrency, Executor readExecutor) {
+    return withGatherer(new SecretsGatherer<>(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset, readConcurrency, readExecutor));
+  }
+  
+  @Override
+  public Params4JFactory<P> withLazySecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset) {
+    return withGatherer(new SecretsGatherer<>(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset, 1, true));
+  }
+  
   @Override
   public Params4J<P> create() {
     return new Params4JImpl<>(constructor
@@ -132,6 +228,16 @@ public class Params4JFactoryImpl<P> implements Params4JFactory<P> {
             , customJsonModules
             , mixIns
             , yamlMapper
+            , treeGathering
+            , gatherExecutor
+            , fingerprintOnly
+            , debouncePolicy
+            , watchMode
+            , pollInterval
+            , maxPollInterval
+            , notificationExecutor
+            , watchBudget
+            , reloadPolicy
     );
   }
   
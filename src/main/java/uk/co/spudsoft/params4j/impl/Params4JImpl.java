@@ -5,7 +5,9 @@
 package uk.co.spudsoft.params4j.impl;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -28,30 +30,51 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.co.spudsoft.params4j.ChangeAware;
 import uk.co.spudsoft.params4j.Comment;
+import uk.co.spudsoft.params4j.ConfigChange;
+import uk.co.spudsoft.params4j.DebouncePolicy;
+import uk.co.spudsoft.params4j.WatchMode;
 import uk.co.spudsoft.params4j.ConfigurationProperty;
+import uk.co.spudsoft.params4j.OverlayGatherer;
 import uk.co.spudsoft.params4j.ParameterGatherer;
 import uk.co.spudsoft.params4j.Params4J;
 import uk.co.spudsoft.params4j.Params4JSpi;
+import uk.co.spudsoft.params4j.ReloadPolicy;
+import uk.co.spudsoft.params4j.ReloadStatus;
 
 /**
  *
@@ -68,13 +91,113 @@ public final class Params4JImpl<P> implements Params4J<P>, Params4JSpi {
   private final Supplier<P> constructor;
   private final List<ParameterGatherer<P>> gatherers;
   private final DeserializationProblemHandler problemHandler;
+  private final boolean lazySecrets;
   private final JavaPropsMapper propsMapper;
   private final ObjectMapper jsonMapper;
   private final ObjectMapper yamlMapper;
+  private final boolean treeGathering;
+  private final Executor gatherExecutor;
+  private final boolean fingerprintOnly;
   private final FileWatcher fileWatcher;
-  private Consumer<P> changeHappenedHandler;
-  private final Object lock = new Object();
-  private final AtomicReference<ObjectNode> lastValue = new AtomicReference<>();
+  private volatile ObjectMapper bindingMapper;
+  private volatile OverlayMerger overlayMerger;
+  private final Executor notificationExecutor;
+  private final boolean keepLastGood;
+  private final ReloadGovernor reloadGovernor;
+  private final AtomicInteger gatherErrors = new AtomicInteger();
+  private volatile boolean pinned;
+  private final Set<Path> deferredChanges = new HashSet<>();
+  private ScheduledFuture<?> deferredReload;
+  private volatile LatestWinsDispatcher<P> changeHappenedHandler;
+  private volatile LatestWinsDispatcher<ConfigChange<P>> configChangeHandler;
+  private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+  
+  /**
+   * A listener for changes to a single section of the parameters, and the fingerprint of the section when the listener was last considered.
+   */
+  private static final class Subscription<T> {
+    private final String pointer;
+    private final Class<T> type;
+    private final LatestWinsDispatcher<T> listener;
+    /**
+     * The fingerprint of the section when the subscription was made or the listener was last considered, only accessed under the lock after construction.
+     */
+    private TreeFingerprint lastSection;
+
+    Subscription(String pointer, Class<T> type, LatestWinsDispatcher<T> listener) {
+      this.pointer = pointer;
+      this.type = type;
+      this.listener = listener;
+    }
+  }
+  /**
+   * Held whilst handling a change notification.
+   * <P>
+   * This is not a monitor because it is held whilst gathering, and a virtual thread that blocks whilst holding a monitor pins its carrier thread (before JDK 24).
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Object flightLock = new Object();
+  private Flight<P> runningFlight;
+  private Flight<P> pendingFlight;
+  
+  /**
+   * A single gather that may be shared by multiple callers.
+   * <P>
+   * The changes are only modified whilst the flight is pending, under the flightLock.
+   * Null changes mean that every gatherer is run, rather than only those affected by the changes.
+   */
+  private static final class Flight<P> {
+    private final CompletableFuture<Gathered<P>> result = new CompletableFuture<>();
+    private Set<Path> changes;
+
+    Flight(Set<Path> changes) {
+      this.changes = changes == null ? null : new HashSet<>(changes);
+    }
+    
+    /**
+     * Add the changes reported by another caller to the flight.
+     * @param changed The paths reported by the caller, null widens the flight to run every gatherer.
+     */
+    void addChanges(Set<Path> changed) {
+      if (changed == null) {
+        changes = null;
+      } else if (changes != null) {
+        changes.addAll(changed);
+      }
+    }
+  }
+  private final AtomicReference<Snapshot<P>> snapshot = new AtomicReference<>();
+  private Snapshot<P> lastNotified;
+  
+  /**
+   * The most recently gathered parameters, along with the fingerprint of their content.
+   * <P>
+   * When every gatherer produces an overlay the fingerprint is of the merged overlays, otherwise it is of the tree built from the parameters.
+   * The version is only incremented when the fingerprint changes.
+   * The tree may not have been built, and is not retained if fingerprintOnly is set.
+   */
+  private record Snapshot<P>(P parameters, ObjectNode tree, TreeFingerprint fingerprint, long version, Instant updated) {
+  }
+  
+  /**
+   * Newly gathered parameters, the fingerprint of their content and the tree representing their content.
+   * <P>
+   * The tree is null if it was not needed to calculate the fingerprint and nothing else requires it.
+   */
+  private record Gathered<P>(P value, ObjectNode tree, TreeFingerprint fingerprint, int errors) {
+  }
+  private final AtomicReferenceArray<CachedOverlay> overlayCache;
+  private final List<GathererSpi> gathererSpis;
+  private final Map<Path, Set<Integer>> watchOwners = new ConcurrentHashMap<>();
+  
+  /**
+   * The overlay most recently produced by a {@link ChangeAware} gatherer and the fingerprint taken before it was produced.
+   * <P>
+   * Overlays from gathers that reported errors are never cached, they may be missing the values from the source that failed
+   * and reusing them would hide the error from the reload that reused them.
+   */
+  private record CachedOverlay(Object fingerprint, ObjectNode overlay) {
+  }
   
   private static final Set<String> TERMINAL_TYPES = buildTerminalTypes();
 
@@ -123,6 +246,10 @@ public final class Params4JImpl<P> implements Params4J<P>, Params4JSpi {
       }
     }
     mapper.registerModule(new JavaTimeModule());
+    if (lazySecrets) {
+      // Only needed to bind lazy secrets to String properties, and it replaces the standard String deserializer
+      mapper.registerModule(new SecretHandleModule());
+    }
     mapper.setDefaultPropertyInclusion(JsonInclude.Include.NON_NULL);
     mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
     mapper.setDefaultMergeable(Boolean.TRUE);
@@ -142,6 +269,16 @@ public final class Params4JImpl<P> implements Params4J<P>, Params4JSpi {
    * @param customJsonModules The custom JSON modules that are added to the default JSON mapper (if one is not passed in).
    * @param mixIns The custom MixIns that are added to the default JSON mapper (if one is not passed in).
    * @param yamlMapper The yaml mapper that is made available to the gatherers via the Params4JSpi.
+   * @param treeGathering If true, overlays from {@link uk.co.spudsoft.params4j.OverlayGatherer}s will be merged and bound to the parameters object once.
+   * @param gatherExecutor If not null, {@link uk.co.spudsoft.params4j.OverlayGatherer}s will be run concurrently on this executor (this implies treeGathering).
+   * @param fingerprintOnly If true, only a fingerprint of the most recently gathered tree is retained, rather than the whole tree (overlays are still cached).
+   * @param debouncePolicy The rules governing how long to wait after a file change before reloading, if null {@link DebouncePolicy#DEFAULT} is used.
+   * @param watchMode The mechanism used to detect changes to watched directories, if null {@link WatchMode#Auto} is used.
+   * @param pollInterval The interval between polls of polled directories after a change has been seen, if null {@link FileWatcher#DEFAULT_POLL_INTERVAL} is used.
+   * @param maxPollInterval The longest interval between polls of polled directories, if null {@link FileWatcher#DEFAULT_MAX_POLL_INTERVAL} is used.
+   * @param notificationExecutor The executor on which change handlers and subscribers are called, if null virtual threads are used (on JDK 21+).
+   * @param watchBudget The maximum number of directories that may be registered with a WatchService by all instances in the JVM, further directories will be polled.
+   * @param reloadPolicy The rules governing how often parameters are reloaded in response to file changes, if null {@link ReloadPolicy#DEFAULT} is used.
    */
   @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Externable objects are mutable")
   public Params4JImpl(Supplier<P> constructor
@@ -152,16 +289,40 @@ public final class Params4JImpl<P> implements Params4J<P>, Params4JSpi {
           , List<com.fasterxml.jackson.databind.Module> customJsonModules
           , List<MixIn> mixIns
           , ObjectMapper yamlMapper
+          , boolean treeGathering
+          , Executor gatherExecutor
+          , boolean fingerprintOnly
+          , DebouncePolicy debouncePolicy
+          , WatchMode watchMode
+          , Duration pollInterval
+          , Duration maxPollInterval
+          , Executor notificationExecutor
+          , int watchBudget
+          , ReloadPolicy reloadPolicy
   ) {
     Objects.requireNonNull(constructor, "A valid supplier must be set on the factory");
     Objects.requireNonNull(gatherers, "A set of gatherers must be set on the factory");
     this.constructor = constructor;
     this.gatherers = gatherers;
     this.problemHandler = Objects.requireNonNullElseGet(problemHandler, () -> new DefaultParametersErrorHandler());
+    this.lazySecrets = gatherers.stream().anyMatch(gatherer -> gatherer instanceof SecretsGatherer<?> secretsGatherer && secretsGatherer.isLazy());
     this.propsMapper = Objects.requireNonNullElseGet(propsMapper, () -> createPropsMapper(customJsonModules, mixIns));
     this.jsonMapper = Objects.requireNonNullElseGet(jsonMapper, () -> createJsonMapper(customJsonModules, mixIns));
     this.yamlMapper = Objects.requireNonNullElseGet(yamlMapper, () -> createYamlMapper(customJsonModules, mixIns));
-    this.fileWatcher = new FileWatcher(this::changeNotificationHandler);
+    this.treeGathering = treeGathering || gatherExecutor != null;
+    this.gatherExecutor = gatherExecutor;
+    this.fingerprintOnly = fingerprintOnly;
+    this.notificationExecutor = Objects.requireNonNullElseGet(notificationExecutor, LatestWinsDispatcher::defaultExecutor);
+    ReloadPolicy policy = Objects.requireNonNullElse(reloadPolicy, ReloadPolicy.DEFAULT);
+    this.keepLastGood = policy.isKeepLastGood();
+    this.reloadGovernor = new ReloadGovernor(policy);
+    this.overlayCache = new AtomicReferenceArray<>(gatherers.size());
+    List<GathererSpi> spis = new ArrayList<>(gatherers.size());
+    for (int i = 0; i < gatherers.size(); ++i) {
+      spis.add(new GathererSpi(i));
+    }
+    this.gathererSpis = spis;
+    this.fileWatcher = new FileWatcher(this::changeNotificationHandler, debouncePolicy, watchMode, pollInterval, maxPollInterval, watchBudget);
   }
 
   /**
@@ -175,6 +336,18 @@ public final class Params4JImpl<P> implements Params4J<P>, Params4JSpi {
     return problemHandler;
   }
 
+  /**
+   * Get the file watcher, which reports the latency of change notifications.
+   * 
+   * This is primarily for test and debug purposes.
+   * 
+   * @return the file watcher.
+   */
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Externable object is mutable")
+  public FileWatcher getFileWatcher() {
+    return fileWatcher;
+  }
+
   @Override
   @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Externable object is mutable")
   public JavaPropsMapper getPropsMapper() {
@@ -197,6 +370,90 @@ public final class Params4JImpl<P> implements Params4J<P>, Params4JSpi {
   public void watch(Path path) throws IOException {
     fileWatcher.watch(path);
   }
+
+  @Override
+  public void watch(Path path, Predicate<Path> filter) throws IOException {
+    fileWatcher.watch(path, filter);
+  }
+
+  @Override
+  public void reportError(String message, Throwable cause) {
+    gatherErrors.incrementAndGet();
+    logger.warn("{}: ", message, cause);
+  }
+  
+  /**
+   * The view of the Params4JSpi that is passed to a single gatherer.
+   * <P>
+   * This records the paths that each gatherer watches so that changes to those paths can be routed back to the gatherer,
+   * and counts the errors that each gatherer reports.
+   */
+  private final class GathererSpi implements Params4JSpi {
+    
+    private final int index;
+    private final AtomicInteger errors = new AtomicInteger();
+
+    GathererSpi(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public JavaPropsMapper getPropsMapper() {
+      return propsMapper;
+    }
+
+    @Override
+    public ObjectMapper getJsonMapper() {
+      return jsonMapper;
+    }
+
+    @Override
+    public ObjectMapper getYamlMapper() {
+      return yamlMapper;
+    }
+
+    @Override
+    public void watch(Path path) throws IOException {
+      watch(path, null);
+    }
+
+    @Override
+    public void watch(Path path, Predicate<Path> filter) throws IOException {
+      fileWatcher.watch(path, filter);
+      watchOwners.computeIfAbsent(path, p -> ConcurrentHashMap.newKeySet()).add(index);
+    }
+
+    @Override
+    public void reportError(String message, Throwable cause) {
+      errors.incrementAndGet();
+      Params4JImpl.this.reportError(gatherers.get(index) + ": " + message, cause);
+    }
+
+    @Override
+    public <T> byte[] prepareProperties(String name, Collection<T> entries, Function<T, Object> keyGetter, Function<T, Object> valueGetter, String propertyPrefix) throws IOException {
+      return Params4JImpl.this.prepareProperties(name, entries, keyGetter, valueGetter, propertyPrefix);
+    }
+
+    @Override
+    public List<ConfigurationProperty> getDocumentation(List<Pattern> terminalClasses, List<Pattern> undocumentedClasses) {
+      return Params4JImpl.this.getDocumentation(terminalClasses, undocumentedClasses);
+    }
+
+    @Override
+    public <T> ObjectNode prepareTree(String name, Collection<T> entries, Function<T, Object> keyGetter, Function<T, Object> valueGetter, String propertyPrefix) throws IOException {
+      return Params4JImpl.this.prepareTree(name, entries, keyGetter, valueGetter, propertyPrefix);
+    }
+
+    @Override
+    public ObjectNode mergeOverlay(ObjectNode target, ObjectNode overlay) {
+      return Params4JImpl.this.mergeOverlay(target, overlay);
+    }
+    
+    @Override
+    public String toString() {
+      return "Params4JSpi for " + gatherers.get(index);
+    }
+  }
   
   @Override
   public <T> byte[] prepareProperties(String name
@@ -232,6 +489,35 @@ public final class Params4JImpl<P> implements Params4J<P>, Params4JSpi {
     }
   }
 
+  @Override
+  public <T> ObjectNode prepareTree(String name
+          , Collection<T> entries
+          , Function<T, Object> keyGetter
+          , Function<T, Object> valueGetter
+          , String propertyPrefix
+  ) throws IOException {
+    PropertyTreeBuilder builder = new PropertyTreeBuilder();
+    for (T entry : entries) {
+      try {
+        String key = getKeyAsPrefixedString(keyGetter, entry, propertyPrefix);
+        if (key != null) {
+          String value = (String) valueGetter.apply(entry);
+          logger.debug("{}: {} = {}", name, key, value);
+          builder.add(key, value);
+        } else {
+          logger.trace("{}: skipping entry: {}", name, entry);
+        }
+      } catch (ClassCastException ex) {
+        logger.warn("{} unable to get key or value as a string from {}", name, entry);
+      }
+    }
+    ObjectNode result = builder.build(jsonMapper.getNodeFactory());
+    if (logger.isTraceEnabled()) {
+      logger.trace("{}: result as tree: {}", name, result);
+    }
+    return result;
+  }
+
   private <T> String getKeyAsPrefixedString(Function<T, Object> keyGetter, T entry, String propertyPrefix) {
     String castKey = (String) keyGetter.apply(entry);
     String key = null;
@@ -243,38 +529,634 @@ public final class Params4JImpl<P> implements Params4J<P>, Params4JSpi {
     return key;
   }
     
+  /**
+   * Get the mapper used to bind merged overlays to the parameters object.
+   * <P>
+   * Overlays may come from any of the configured mappers, including the props mapper (which accepts case insensitive property names),
+   * so the binding mapper is a copy of the JSON mapper that also accepts case insensitive property names.
+   * 
+   * @return the mapper used to bind merged overlays to the parameters object.
+   */
+  @SuppressWarnings("deprecation")
+  ObjectMapper getBindingMapper() {
+    ObjectMapper result = bindingMapper;
+    if (result == null) {
+      result = jsonMapper.copy();
+      result.configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES, true);
+      bindingMapper = result;
+    }
+    return result;
+  }
+  
+  /**
+   * Get the merger used to merge overlays before they are bound to the parameters object.
+   * <P>
+   * The merger matches the names of the properties of the parameters object without regard to case, as the binding mapper does.
+   * 
+   * @return the merger used to merge overlays before they are bound to the parameters object.
+   */
+  OverlayMerger getOverlayMerger() {
+    OverlayMerger result = overlayMerger;
+    if (result == null) {
+      ObjectMapper mapper = getBindingMapper();
+      P prototype = constructor.get();
+      result = new OverlayMerger(mapper, prototype == null ? null : mapper.constructType(prototype.getClass()));
+      overlayMerger = result;
+    }
+    return result;
+  }
+
+  @Override
+  public ObjectNode mergeOverlay(ObjectNode target, ObjectNode overlay) {
+    return getOverlayMerger().mergeOverlay(target, overlay);
+  }
+  
   @Override
   public P gatherParameters() {
+    return gatherParameters(null);
+  }
+  
+  /**
+   * Gather parameters after some watched paths have changed.
+   * <P>
+   * In tree gathering mode each changed path is routed to the gatherers that watch it (or its parent directory).
+   * Other gatherers that watch paths reuse their previous overlays without being run.
+   * 
+   * @param changed The paths that have changed, or null to run every gatherer.
+   * @return The newly gathered parameters.
+   */
+  P gatherParameters(Set<Path> changed) {
+    return gather(changed).value();
+  }
+  
+  /**
+   * Gather parameters, sharing the work with any concurrent callers.
+   * <P>
+   * If a gather that runs every gatherer is already running a caller that is not reporting a change shares its result.
+   * A caller that is reporting a change cannot use the running gather (it may have read the files before they changed),
+   * and nor can a caller that is not reporting a change if the running gather only runs the gatherers affected by a change,
+   * so they wait for a single follow-up gather, which is also shared by any callers that arrive before it starts.
+   * The follow-up gather runs every gatherer if any of the callers sharing it is not reporting a change.
+   * 
+   * @param changed The paths that have changed, or null if this is not a reload triggered by a change.
+   * @return The result of the gather.
+   */
+  private Gathered<P> gather(Set<Path> changed) {
+    Flight<P> flight = null;
+    while (true) {
+      Flight<P> ahead = null;
+      boolean run = false;
+      synchronized (flightLock) {
+        if (flight != null) {
+          // This caller has already added its changes to the pending flight
+          if (pendingFlight != flight) {
+            // The pending flight has been started by another caller
+            break;
+          } else if (runningFlight == null) {
+            pendingFlight = null;
+            runningFlight = flight;
+            run = true;
+          } else {
+            ahead = runningFlight;
+          }
+        } else if (runningFlight == null) {
+          // Either start the pending flight (which must have been waiting for the previous one to finish) or a new one
+          if (pendingFlight != null) {
+            flight = pendingFlight;
+            flight.addChanges(changed);
+            pendingFlight = null;
+          } else {
+            flight = new Flight<>(changed);
+          }
+          runningFlight = flight;
+          run = true;
+        } else if (changed == null && pendingFlight == null && runningFlight.changes == null) {
+          flight = runningFlight;
+        } else {
+          if (pendingFlight == null) {
+            pendingFlight = new Flight<>(changed);
+          } else {
+            pendingFlight.addChanges(changed);
+          }
+          flight = pendingFlight;
+          ahead = runningFlight;
+        }
+      }
+      if (run) {
+        runFlight(flight);
+        break;
+      } else if (ahead == null) {
+        break;
+      } else {
+        // Wait for the running flight to finish, then try to start the pending one
+        ahead.result.handle((g, ex) -> null).join();
+      }
+    }
+    return flight.result.join();
+  }
+  
+  private void runFlight(Flight<P> flight) {
+    try {
+      gatherErrors.set(0);
+      Gathered<P> gathered = treeGathering ? gatherOverlays(routeChanges(flight.changes)) : gatherSequentially();
+      int errors = gatherErrors.get();
+      Snapshot<P> published = publish(gathered, errors);
+      if (pinned) {
+        gathered = new Gathered<>(published.parameters(), published.tree(), published.fingerprint(), errors);
+      } else if (errors > 0) {
+        gathered = new Gathered<>(gathered.value(), gathered.tree(), gathered.fingerprint(), errors);
+      }
+      flight.result.complete(gathered);
+    } catch (Throwable ex) {
+      flight.result.completeExceptionally(ex);
+    } finally {
+      synchronized (flightLock) {
+        runningFlight = null;
+      }
+    }
+  }
+  
+  private Gathered<P> gatherSequentially() {
     P value = constructor.get();
-    for (ParameterGatherer<P> gatherer : gatherers) {
+    for (int i = 0; i < gatherers.size(); ++i) {
+      ParameterGatherer<P> gatherer = gatherers.get(i);
       try {
-        value = gatherer.gatherParameters(this, value);
+        value = gatherer.gatherParameters(gathererSpis.get(i), value);
         if (logger.isTraceEnabled()) {
           logger.trace("Parameters after {}: {}", gatherer, jsonMapper.writeValueAsString(value));
         }
       } catch (Throwable ex) {
-        logger.warn("Failed to process: ", ex);
+        reportError("Failed to process " + gatherer, ex);
+      }
+    }
+    ObjectNode tree = jsonMapper.convertValue(value, ObjectNode.class);
+    return new Gathered<>(value, tree, TreeFingerprint.of(tree), 0);
+  }
+
+  /**
+   * Find the changed paths that are relevant to each gatherer.
+   * @param changed The paths that have changed, or null if this is not a reload triggered by a change.
+   * @return A map from gatherer index to the paths that have changed for that gatherer (empty for gatherers that watch paths but have not been affected),
+   * or null if changed is null.
+   */
+  private Map<Integer, Set<Path>> routeChanges(Set<Path> changed) {
+    if (changed == null) {
+      return null;
+    }
+    Map<Integer, Set<Path>> routed = new HashMap<>();
+    for (Set<Integer> owners : watchOwners.values()) {
+      for (Integer owner : owners) {
+        routed.putIfAbsent(owner, new HashSet<>());
       }
     }
-    lastValue.set(jsonMapper.convertValue(value, ObjectNode.class));
+    for (Path path : changed) {
+      routeChange(routed, path, watchOwners.get(path));
+      routeChange(routed, path, path.getParent() == null ? null : watchOwners.get(path.getParent()));
+    }
+    logger.debug("Changes routed to gatherers: {}", routed);
+    return routed;
+  }
+  
+  private static void routeChange(Map<Integer, Set<Path>> routed, Path path, Set<Integer> owners) {
+    if (owners != null) {
+      for (Integer owner : owners) {
+        routed.get(owner).add(path);
+      }
+    }
+  }
+  
+  private Gathered<P> gatherOverlays(Map<Integer, Set<Path>> routed) {
+    List<CompletableFuture<ObjectNode>> overlays = new ArrayList<>(gatherers.size());
+    for (int i = 0; i < gatherers.size(); ++i) {
+      ParameterGatherer<P> gatherer = gatherers.get(i);
+      if (gatherExecutor != null && gatherer instanceof OverlayGatherer<P> overlayGatherer) {
+        int index = i;
+        Set<Path> changed = routed == null ? null : routed.get(i);
+        CompletableFuture<ObjectNode> future;
+        try {
+          future = CompletableFuture.supplyAsync(() -> gatherOverlay(index, overlayGatherer, changed), gatherExecutor);
+        } catch (RejectedExecutionException ex) {
+          logger.debug("Executor rejected {}, running inline: ", gatherer, ex);
+          future = CompletableFuture.completedFuture(gatherOverlay(index, overlayGatherer, changed));
+        }
+        overlays.add(future);
+      } else {
+        overlays.add(null);
+      }
+    }
+    
+    ObjectNode merged = jsonMapper.createObjectNode();
+    P value = bindOverlays(routed, overlays, merged);
+    if (gatherers.stream().anyMatch(gatherer -> !(gatherer instanceof OverlayGatherer))) {
+      // A gatherer that cannot produce an overlay has changed P directly, so only P represents the content
+      ObjectNode tree = jsonMapper.convertValue(value, ObjectNode.class);
+      return new Gathered<>(value, tree, TreeFingerprint.of(tree), 0);
+    }
+    // The merged overlays are a complete and deterministic record of the sources, so their fingerprint changes whenever P can have changed.
+    // The tree (which has the property names and values as they are in P, rather than as they were in the sources) is only built when it is needed.
+    return new Gathered<>(value, needsTree() ? jsonMapper.convertValue(value, ObjectNode.class) : null, TreeFingerprint.of(merged), 0);
+  }
+  
+  /**
+   * Return true if the tree representing the gathered parameters should be built even when it is not needed to calculate the fingerprint.
+   * <P>
+   * The tree is only used to identify what has changed for config change handlers and subscriptions.
+   * 
+   * @return true if the tree representing the gathered parameters should be built.
+   */
+  private boolean needsTree() {
+    return configChangeHandler != null || !subscriptions.isEmpty();
+  }
+  
+  /**
+   * Get the overlay from a gatherer, gathering it now if it was not started on the gather executor.
+   * <P>
+   * The overlay is stored in the list so that it is only gathered once.
+   */
+  private ObjectNode getOverlay(Map<Integer, Set<Path>> routed, List<CompletableFuture<ObjectNode>> overlays, int index, OverlayGatherer<P> gatherer) {
+    CompletableFuture<ObjectNode> future = overlays.get(index);
+    if (future == null) {
+      future = CompletableFuture.completedFuture(gatherOverlay(index, gatherer, routed == null ? null : routed.get(index)));
+      overlays.set(index, future);
+    }
+    return future.join();
+  }
+  
+  /**
+   * Bind the overlays to a new parameters object, in the order that the gatherers were registered.
+   * <P>
+   * The overlays from the gatherers that precede the first gatherer that cannot produce an overlay (usually all of them) are merged and bound to P in one go.
+   * If that bind fails the new P may have been partially updated, so they are bound again, separately, to another new P;
+   * so a failure only discards the values from the overlay that could not be bound (as when gathering sequentially).
+   * <P>
+   * Gatherers that cannot produce an overlay are run in their place, each is run once.
+   * Once one of them has run P cannot be recreated without running it again, so the overlays from any subsequent gatherers are bound separately.
+   * 
+   * @param routed The changed paths routed to each gatherer.
+   * @param overlays The futures for the overlays from each gatherer, null entries are gathered as they are reached.
+   * @param merged An empty object that the overlays are merged into, it only contains the overlays that precede the first gatherer that cannot produce an overlay.
+   * @return The bound parameters object.
+   */
+  private P bindOverlays(Map<Integer, Set<Path>> routed, List<CompletableFuture<ObjectNode>> overlays, ObjectNode merged) {
+    P value = constructor.get();
+    boolean merging = true;
+    for (int i = 0; i < gatherers.size(); ++i) {
+      ParameterGatherer<P> gatherer = gatherers.get(i);
+      if (gatherer instanceof OverlayGatherer<P> overlayGatherer) {
+        ObjectNode overlay = getOverlay(routed, overlays, i, overlayGatherer);
+        if (overlay == null) {
+          continue;
+        }
+        if (merging) {
+          getOverlayMerger().mergeOverlay(merged, overlay);
+        } else {
+          value = bindSeparately(value, i, overlay);
+        }
+      } else {
+        if (merging) {
+          value = bindMerged(value, merged, i, overlays);
+          merging = false;
+        }
+        try {
+          value = gatherer.gatherParameters(gathererSpis.get(i), value);
+        } catch (Throwable ex) {
+          reportError("Failed to process " + gatherer, ex);
+        }
+      }
+    }
+    if (merging) {
+      value = bindMerged(value, merged, gatherers.size(), overlays);
+    }
     return value;
   }
+  
+  /**
+   * Bind the merged overlays from the gatherers before end to a new parameters object.
+   * <P>
+   * If the bind fails the overlays are bound separately to another new parameters object.
+   * 
+   * @param value The new parameters object.
+   * @param merged The merged overlays.
+   * @param end The index of the first gatherer whose overlay has not been merged.
+   * @param overlays The overlays from each gatherer, all of the overlays before end have been gathered.
+   * @return The bound parameters object.
+   */
+  private P bindMerged(P value, ObjectNode merged, int end, List<CompletableFuture<ObjectNode>> overlays) {
+    try {
+      return bindOverlay(value, merged);
+    } catch (Throwable ex) {
+      logger.warn("Failed to bind merged overlays, binding the overlay from each gatherer separately: {}", ex.getMessage());
+      logger.debug("Failed to bind merged overlays: ", ex);
+      P result = constructor.get();
+      for (int i = 0; i < end; ++i) {
+        CompletableFuture<ObjectNode> future = overlays.get(i);
+        ObjectNode overlay = future == null ? null : future.join();
+        if (overlay != null) {
+          result = bindSeparately(result, i, overlay);
+        }
+      }
+      return result;
+    }
+  }
+  
+  private P bindSeparately(P value, int index, ObjectNode overlay) {
+    try {
+      return bindOverlay(value, overlay);
+    } catch (Throwable ex) {
+      gathererSpis.get(index).reportError("Failed to bind overlay", ex);
+      return value;
+    }
+  }
+  
+  /**
+   * Publish newly gathered parameters as the current snapshot, unless their content is the same as the current snapshot.
+   * <P>
+   * If the gather reported errors and the last good parameters are to be kept, the current snapshot is left in place.
+   * 
+   * @param gathered The newly gathered parameters.
+   * @param errors The number of errors reported during the gather.
+   * @return The current snapshot.
+   */
+  private Snapshot<P> publish(Gathered<P> gathered, int errors) {
+    Snapshot<P> current = snapshot.get();
+    if (errors > 0 && keepLastGood && current != null) {
+      logger.warn("Parameters gathered with {} errors, keeping version {}", errors, current.version());
+      pinned = true;
+      return current;
+    }
+    pinned = false;
+    TreeFingerprint fingerprint = gathered.fingerprint();
+    return snapshot.updateAndGet(previous -> {
+      if (previous != null && previous.fingerprint().equals(fingerprint)) {
+        return previous;
+      }
+      return new Snapshot<>(gathered.value()
+              , fingerprintOnly ? null : gathered.tree()
+              , fingerprint
+              , previous == null ? 1 : previous.version() + 1
+              , Instant.now()
+      );
+    });
+  }
+
+  @Override
+  public P current() {
+    Snapshot<P> current = snapshot.get();
+    return current == null ? null : current.parameters();
+  }
+
+  @Override
+  public long version() {
+    Snapshot<P> current = snapshot.get();
+    return current == null ? 0 : current.version();
+  }
+
+  @Override
+  public Instant lastUpdated() {
+    Snapshot<P> current = snapshot.get();
+    return current == null ? null : current.updated();
+  }
+
+  @Override
+  public void close() {
+    fileWatcher.close();
+    changeHappenedHandler = null;
+    configChangeHandler = null;
+    subscriptions.clear();
+    lock.lock();
+    try {
+      if (deferredReload != null) {
+        deferredReload.cancel(false);
+        deferredReload = null;
+      }
+      deferredChanges.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public ReloadStatus getReloadStatus() {
+    return reloadGovernor.status(System.nanoTime(), pinned);
+  }
+  
+  private Object getFingerprint(ChangeAware gatherer) {
+    try {
+      return gatherer.getFingerprint();
+    } catch (Throwable ex) {
+      logger.debug("Failed to get fingerprint from {}: ", gatherer, ex);
+      return null;
+    }
+  }
+  
+  /**
+   * Get the overlay from a single gatherer, reusing the previous overlay if possible.
+   * 
+   * @param index The index of the gatherer.
+   * @param gatherer The gatherer.
+   * @param changed The changed paths that have been routed to this gatherer, 
+   * null if this gatherer does not watch any paths or the gather was not triggered by a change.
+   * @return The overlay, or null if the gatherer failed.
+   */
+  private ObjectNode gatherOverlay(int index, OverlayGatherer<P> gatherer, Set<Path> changed) {
+    CachedOverlay cached = overlayCache.get(index);
+    if (cached != null && changed != null && changed.isEmpty()) {
+      logger.trace("Reusing overlay from {}, none of its watched paths have changed", gatherer);
+      return cached.overlay();
+    }
+    // The fingerprint is taken before gathering so that any change made during the gather will be seen next time.
+    Object fingerprint = null;
+    if (gatherer instanceof ChangeAware changeAware) {
+      fingerprint = getFingerprint(changeAware);
+      if (fingerprint != null && cached != null && fingerprint.equals(cached.fingerprint())) {
+        logger.trace("Reusing overlay from {}", gatherer);
+        return cached.overlay();
+      }
+    }
+    GathererSpi spi = gathererSpis.get(index);
+    int errorsBefore = spi.errors.get();
+    try {
+      ObjectNode overlay = cached == null || changed == null
+              ? gatherer.gatherOverlay(spi)
+              : gatherer.gatherOverlay(spi, cached.overlay(), changed);
+      if (logger.isTraceEnabled()) {
+        logger.trace("Overlay from {}: {}", gatherer, overlay);
+      }
+      boolean failed = spi.errors.get() != errorsBefore;
+      if (failed) {
+        logger.debug("Not caching overlay from {}, errors were reported whilst gathering it", gatherer);
+      }
+      overlayCache.set(index, fingerprint == null || overlay == null || failed ? null : new CachedOverlay(fingerprint, overlay));
+      return overlay;
+    } catch (Throwable ex) {
+      reportError("Failed to process " + gatherer, ex);
+      overlayCache.set(index, null);
+      return null;
+    }
+  }
+  
+  private P bindOverlay(P value, ObjectNode overlay) throws IOException {
+    if (overlay.isEmpty()) {
+      return value;
+    }
+    return getBindingMapper().readerForUpdating(value).readValue(overlay);
+  }
 
   @Override
   public boolean notifyOfChanges(Consumer<P> handler) {
-    changeHappenedHandler = handler;
+    changeHappenedHandler = handler == null ? null : new LatestWinsDispatcher<>(notificationExecutor, handler, null, "Change handler");
+    return fileWatcher.start();
+  }
+    
+  @Override
+  public boolean notifyOfConfigChanges(Consumer<ConfigChange<P>> handler) {
+    configChangeHandler = handler == null ? null : new LatestWinsDispatcher<>(notificationExecutor, handler, Params4JImpl::combine, "Config change handler");
     return fileWatcher.start();
   }
     
-  private void changeNotificationHandler() {
-    synchronized (lock) {
-      P newValue = gatherParameters();
-      ObjectNode newNode = jsonMapper.convertValue(newValue, ObjectNode.class);
-      if (newNode.equals(lastValue.get())) {
-        lastValue.set(newNode);
-        changeHappenedHandler.accept(newValue);
+  @Override
+  public <T> boolean subscribe(String pointer, Class<T> type, Consumer<T> listener) {
+    Objects.requireNonNull(type, "A type must be specified for the subscription");
+    Objects.requireNonNull(listener, "A listener must be specified for the subscription");
+    // Validate the pointer now, rather than failing on the watcher thread
+    JsonPointer.compile(pointer);
+    Subscription<T> subscription = new Subscription<>(pointer, type, new LatestWinsDispatcher<>(notificationExecutor, listener, null, "Subscriber to " + pointer));
+    // The section as it is now is the baseline, so the listener is only called when it changes from this
+    subscription.lastSection = sectionFingerprint(snapshot.get(), pointer);
+    subscriptions.add(subscription);
+    return fileWatcher.start();
+  }
+  
+  /**
+   * Combine two changes that have not yet been delivered into a single change covering both.
+   */
+  private static <P> ConfigChange<P> combine(ConfigChange<P> older, ConfigChange<P> newer) {
+    Set<String> paths = new LinkedHashSet<>(older.getChangedPaths());
+    paths.addAll(newer.getChangedPaths());
+    return new ConfigChange<>(older.getPrevious(), newer.getCurrent(), new ArrayList<>(paths));
+  }
+  
+  /**
+   * Get the tree representing the content of a snapshot.
+   * <P>
+   * If only the fingerprint of the snapshot was retained the tree is recreated from the parameters.
+   * 
+   * @param source The snapshot, may be null.
+   * @return The tree representing the content of the snapshot, or null if there is no snapshot or its parameters cannot be converted.
+   */
+  private ObjectNode treeOf(Snapshot<P> source) {
+    if (source == null) {
+      return null;
+    }
+    ObjectNode tree = source.tree();
+    if (tree == null) {
+      try {
+        tree = jsonMapper.convertValue(source.parameters(), ObjectNode.class);
+      } catch (Throwable ex) {
+        logger.debug("Failed to convert parameters of version {}: ", source.version(), ex);
+        return null;
       }
     }
+    return tree;
+  }
+  
+  /**
+   * Get the fingerprint of a section of a snapshot.
+   * 
+   * @param source The snapshot, may be null.
+   * @param pointer The JSON pointer identifying the section.
+   * @return The fingerprint of the section, or null if there is no snapshot.
+   */
+  private TreeFingerprint sectionFingerprint(Snapshot<P> source, String pointer) {
+    ObjectNode tree = treeOf(source);
+    return tree == null ? null : TreeFingerprint.of(JsonPointers.find(tree, pointer));
+  }
+  
+  private <T> void notifySubscription(Subscription<T> subscription, ObjectNode previous, ObjectNode current) {
+    TreeFingerprint previousSection = subscription.lastSection;
+    if (previousSection == null && previous != null) {
+      previousSection = TreeFingerprint.of(JsonPointers.find(previous, subscription.pointer));
+    }
+    JsonNode currentSection = JsonPointers.find(current, subscription.pointer);
+    subscription.lastSection = TreeFingerprint.of(currentSection);
+    if (!subscription.lastSection.equals(previousSection)) {
+      try {
+        T value = currentSection.isMissingNode() ? null : getBindingMapper().treeToValue(currentSection, subscription.type);
+        subscription.listener.offer(value);
+      } catch (Throwable ex) {
+        logger.warn("Failed to bind section {} for subscriber: ", subscription.pointer, ex);
+      }
+    }
+  }
+    
+  private void changeNotificationHandler(Set<Path> changed) {
+    lock.lock();
+    try {
+      deferredChanges.addAll(changed);
+      if (deferredChanges.isEmpty()) {
+        return;
+      }
+      long now = System.nanoTime();
+      long delay = reloadGovernor.delay(now);
+      if (delay > 0) {
+        reloadGovernor.deferred();
+        if (deferredReload == null || deferredReload.isDone()) {
+          logger.debug("Reload held back for {}ms", TimeUnit.NANOSECONDS.toMillis(delay));
+          // The reload itself must not run on the shared scheduler thread
+          deferredReload = WatchHub.scheduler().schedule(() -> fileWatcher.deliverNow(Collections.emptySet()), delay, TimeUnit.NANOSECONDS);
+        }
+        return;
+      }
+      Set<Path> batch = new HashSet<>(deferredChanges);
+      deferredChanges.clear();
+      reloadGovernor.started(now);
+      
+      // Compare with the last snapshot that listeners were told about, in case something else has gathered parameters since
+      Snapshot<P> previousSnapshot = lastNotified == null ? snapshot.get() : lastNotified;
+      Gathered<P> gathered = gather(batch);
+      reloadGovernor.completed(gathered.errors());
+      P newValue = gathered.value();
+      Snapshot<P> currentSnapshot = snapshot.get();
+      lastNotified = currentSnapshot;
+      P previousParameters = previousSnapshot == null ? null : previousSnapshot.parameters();
+      if (previousSnapshot != currentSnapshot) {
+        LatestWinsDispatcher<P> handler = changeHappenedHandler;
+        if (handler != null) {
+          handler.offer(newValue);
+        }
+        LatestWinsDispatcher<ConfigChange<P>> changeHandler = configChangeHandler;
+        if (changeHandler == null && subscriptions.isEmpty()) {
+          return;
+        }
+        // Each tree is built at most once for all of the listeners.
+        // If only the fingerprint was retained the previous tree must be recreated, or everything would appear to have changed.
+        ObjectNode current = gathered.tree();
+        if (current == null) {
+          try {
+            current = jsonMapper.convertValue(newValue, ObjectNode.class);
+          } catch (Throwable ex) {
+            logger.warn("Failed to convert parameters to identify changes: ", ex);
+            return;
+          }
+        }
+        ObjectNode previous = null;
+        if (changeHandler != null || subscriptions.stream().anyMatch(subscription -> subscription.lastSection == null)) {
+          previous = treeOf(previousSnapshot);
+        }
+        if (changeHandler != null) {
+          try {
+            changeHandler.offer(new ConfigChange<>(previousParameters, newValue, JsonDiff.diff(previous, current)));
+          } catch (Throwable ex) {
+            logger.warn("Failed to identify changes: ", ex);
+          }
+        }
+        for (Subscription<?> subscription : subscriptions) {
+          notifySubscription(subscription, previous, current);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
   }
   
   private static boolean canBeEnvVar(String propName) {
@@ -353,6 +1235,11 @@ public final class Params4JImpl<P> implements Params4J<P>, Params4JSpi {
     return result;
   }
 
+  @Override
+  public List<ConfigurationProperty> getDocumentation(List<Pattern> terminalClasses, List<Pattern> undocumentedClasses) {
+    return getDocumentation(constructor.get(), null, terminalClasses, undocumentedClasses);
+  }
+
   private boolean typeIsIn(List<Pattern> list, String typeName) {
     if (list == null || list.isEmpty() || typeName == null) {
       return false;
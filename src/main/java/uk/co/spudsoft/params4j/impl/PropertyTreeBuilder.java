@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Build a JSON tree directly from flat property names and values, without writing them out as a properties file and parsing that.
+ * <P>
+ * Property names are split in the same way as the {@link com.fasterxml.jackson.dataformat.javaprop.JavaPropsMapper} splits them
+ * (with a {@link com.fasterxml.jackson.dataformat.javaprop.JavaPropsSchema} that uses '\' as the path separator escape character):
+ * <UL>
+ * <LI>'.' separates segments of the path, empty segments are ignored.
+ * <LI>A segment that is entirely digits, or a trailing "[n]" on a segment, is an index.
+ * <LI>'\' escapes the following '.' or '\'.
+ * </UL>
+ * A node that only has indexed children becomes an array (in index order, ignoring gaps).
+ * A node that has named children becomes an object; if it also has a value that value is stored with an empty name and any indexed children are stored
+ * with their index as the name.
+ * <P>
+ * Values are used exactly as provided, there is no escaping or trimming of whitespace to corrupt them.
+ *
+ * @author jtalbut
+ */
+final class PropertyTreeBuilder {
+
+  private static final char SEPARATOR = '.';
+  private static final char ESCAPE = '\\';
+
+  private final Node root = new Node();
+
+  /**
+   * A node in the tree being built.
+   */
+  private static final class Node {
+    private String value;
+    private Map<String, Node> children;
+    private TreeMap<Integer, Node> indexed;
+
+    Node child(String name) {
+      if (children == null) {
+        children = new LinkedHashMap<>();
+      }
+      return children.computeIfAbsent(name, n -> new Node());
+    }
+
+    Node index(int index) {
+      if (indexed == null) {
+        indexed = new TreeMap<>();
+      }
+      return indexed.computeIfAbsent(index, i -> new Node());
+    }
+
+    JsonNode toJson(JsonNodeFactory factory) {
+      if (children == null && indexed == null) {
+        return factory.textNode(value);
+      } else if (children == null) {
+        ArrayNode array = factory.arrayNode(indexed.size() + (value == null ? 0 : 1));
+        if (value != null) {
+          array.add(value);
+        }
+        for (Node node : indexed.values()) {
+          array.add(node.toJson(factory));
+        }
+        return array;
+      } else {
+        ObjectNode object = factory.objectNode();
+        if (value != null) {
+          object.put("", value);
+        }
+        for (Map.Entry<String, Node> entry : children.entrySet()) {
+          object.set(entry.getKey(), entry.getValue().toJson(factory));
+        }
+        if (indexed != null) {
+          for (Map.Entry<Integer, Node> entry : indexed.entrySet()) {
+            object.set(Integer.toString(entry.getKey()), entry.getValue().toJson(factory));
+          }
+        }
+        return object;
+      }
+    }
+  }
+
+  /**
+   * Add a property to the tree.
+   * <P>
+   * If the same name is added more than once the last value wins.
+   *
+   * @param name The name of the property, the path to the value in the tree.
+   * @param value The value of the property.
+   */
+  void add(String name, String value) {
+    Node node = root;
+    for (String segment : split(name)) {
+      int index = parseIndex(segment, 0, segment.length());
+      if (index >= 0) {
+        node = node.index(index);
+        continue;
+      }
+      int open = segment.length() > 3 && segment.endsWith("]") ? segment.lastIndexOf('[') : -1;
+      index = open > 0 ? parseIndex(segment, open + 1, segment.length() - 1) : -1;
+      if (index >= 0) {
+        node = node.child(segment.substring(0, open)).index(index);
+      } else {
+        node = node.child(segment);
+      }
+    }
+    if (node != root) {
+      node.value = value;
+    }
+  }
+
+  /**
+   * Return true if no properties have been added to the tree.
+   * @return true if no properties have been added to the tree.
+   */
+  boolean isEmpty() {
+    return root.children == null && root.indexed == null;
+  }
+
+  /**
+   * Build the JSON tree.
+   * <P>
+   * The root is always an object, indexes at the top level are stored with the index as the name.
+   *
+   * @param factory The factory for creating nodes.
+   * @return A newly created ObjectNode containing all the properties added.
+   */
+  ObjectNode build(JsonNodeFactory factory) {
+    if (isEmpty()) {
+      return factory.objectNode();
+    }
+    Node top = root;
+    if (top.children == null) {
+      // Force the root to be an object
+      top = new Node();
+      top.children = new LinkedHashMap<>();
+      top.indexed = root.indexed;
+    }
+    return (ObjectNode) top.toJson(factory);
+  }
+
+  /**
+   * Split a property name into its non-empty segments, honouring the escape character.
+   * <P>
+   * A "[n]" index part way through a segment also ends the segment, so "a[1]b" is split into "a[1]" and "b".
+   */
+  static List<String> split(String name) {
+    List<String> result = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    int len = name.length();
+    for (int i = 0; i < len; ++i) {
+      char c = name.charAt(i);
+      if (c == ESCAPE && i + 1 < len && (name.charAt(i + 1) == SEPARATOR || name.charAt(i + 1) == ESCAPE)) {
+        current.append(name.charAt(++i));
+      } else if (c == SEPARATOR) {
+        if (!current.isEmpty()) {
+          result.add(current.toString());
+          current.setLength(0);
+        }
+      } else {
+        current.append(c);
+        if (c == ']' && i + 1 < len && name.charAt(i + 1) != SEPARATOR) {
+          int open = current.lastIndexOf("[");
+          if (open > 0 && parseIndex(current, open + 1, current.length() - 1) >= 0) {
+            result.add(current.toString());
+            current.setLength(0);
+          }
+        }
+      }
+    }
+    if (!current.isEmpty()) {
+      result.add(current.toString());
+    }
+    return result;
+  }
+
+  /**
+   * Parse a run of digits as a non-negative int.
+   * @return the index, or -1 if the run is empty, contains anything other than digits, or is too large.
+   */
+  private static int parseIndex(CharSequence text, int start, int end) {
+    if (start >= end || end - start > 9) {
+      return -1;
+    }
+    int result = 0;
+    for (int i = start; i < end; ++i) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+
+}
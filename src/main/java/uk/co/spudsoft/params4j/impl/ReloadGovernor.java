@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.time.Duration;
+import uk.co.spudsoft.params4j.ReloadPolicy;
+import uk.co.spudsoft.params4j.ReloadStatus;
+
+/**
+ * Tracks the outcome of reloads and decides when the next reload may start, according to a {@link ReloadPolicy}.
+ * <P>
+ * All times are in nanoseconds, as returned by {@link System#nanoTime()}, and are passed in to make the behaviour deterministic.
+ * 
+ * @author jtalbut
+ */
+final class ReloadGovernor {
+  
+  private final long minIntervalNanos;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+  
+  private boolean reloaded;
+  private long lastReload;
+  private long reloads;
+  private long deferredReloads;
+  private int consecutiveFailures;
+  private int lastErrorCount;
+
+  ReloadGovernor(ReloadPolicy policy) {
+    this.minIntervalNanos = policy.getMinInterval().toNanos();
+    this.initialBackoffNanos = policy.getInitialBackoff().toNanos();
+    this.maxBackoffNanos = policy.getMaxBackoff().toNanos();
+  }
+  
+  /**
+   * Get the time that a reload must wait before it may start.
+   * @param now The current time.
+   * @return the time that a reload must wait before it may start, zero if it may start now.
+   */
+  synchronized long delay(long now) {
+    if (!reloaded) {
+      return 0;
+    }
+    long wait = minIntervalNanos;
+    if (consecutiveFailures > 0) {
+      long backoff = initialBackoffNanos;
+      for (int i = 1; i < consecutiveFailures && backoff < maxBackoffNanos; ++i) {
+        backoff *= 2;
+      }
+      wait = Math.max(wait, Math.min(backoff, maxBackoffNanos));
+    }
+    return Math.max(0, lastReload + wait - now);
+  }
+  
+  /**
+   * Record that a reload has been held back.
+   */
+  synchronized void deferred() {
+    ++deferredReloads;
+  }
+  
+  /**
+   * Record that a reload has been started.
+   * @param now The time at which the reload started.
+   */
+  synchronized void started(long now) {
+    reloaded = true;
+    lastReload = now;
+    ++reloads;
+  }
+  
+  /**
+   * Record the outcome of a reload.
+   * @param errors The number of errors reported by the gatherers.
+   */
+  synchronized void completed(int errors) {
+    lastErrorCount = errors;
+    consecutiveFailures = errors > 0 ? consecutiveFailures + 1 : 0;
+  }
+  
+  /**
+   * Get the current state for monitoring.
+   * @param now The current time.
+   * @param pinned Whether the current parameters are being kept because the most recent gather reported errors.
+   * @return the current state.
+   */
+  synchronized ReloadStatus status(long now, boolean pinned) {
+    return new ReloadStatus(reloads, deferredReloads, consecutiveFailures, lastErrorCount, Duration.ofNanos(delay(now)), pinned);
+  }
+  
+}
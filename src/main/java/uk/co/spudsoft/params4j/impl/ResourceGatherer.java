@@ -4,57 +4,248 @@
  */
 package uk.co.spudsoft.params4j.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.javaprop.JavaPropsMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.co.spudsoft.params4j.FileType;
-import uk.co.spudsoft.params4j.ParameterGatherer;
+import uk.co.spudsoft.params4j.ChangeAware;
+import uk.co.spudsoft.params4j.OverlayGatherer;
 import uk.co.spudsoft.params4j.Params4JSpi;
 
 /**
  *
  * The ResourceGatherer loads a single resource file, which can be properties, JSON or YAML.
+ * <P>
+ * Resources are assumed not to change whilst the process is running, so the resource is read and parsed once, 
+ * the first time that it is gathered, and the resulting tree is used for all subsequent gathers.
+ * If the gatherer is shared the tree is also shared with any other shared ResourceGatherer that loads the same resource, of the same type, from the same ClassLoader.
+ * Shared resources are parsed with a standard mapper for the file type, rather than the mapper of whichever instance happens to load the resource first.
+ * The cached tree must not be modified.
+ * <P>
+ * A load that reports errors is not cached, the resource will be loaded again the next time that it is gathered.
+ * <P>
+ * If all copies are requested every copy of the resource found by {@link ClassLoader#getResources(java.lang.String)} is loaded and they are merged (as overlays are merged)
+ * in the reverse of the order that they are found, so that the copy that would be found by {@link ClassLoader#getResource(java.lang.String)} takes precedence.
+ * Typically this means that copies in the parent ClassLoader are overridden by copies in the child, and copies in jars later in the classpath are overridden by those earlier in the classpath.
+ * The copies of a shared resource are merged without knowing the type of the parameters object, so property names in different copies must match exactly.
  * 
  * @author jtalbut
  * 
  * @param <P> The type of the parameters object.
  */
-public class ResourceGatherer<P> implements ParameterGatherer<P> {
+public class ResourceGatherer<P> implements OverlayGatherer<P>, ChangeAware {
   
   private static final Logger logger = LoggerFactory.getLogger(ResourceGatherer.class);
 
+  /**
+   * Trees shared between gatherers, the ClassLoaders are weakly held so that this does not prevent them being unloaded.
+   */
+  private static final Map<ClassLoader, Map<SharedKey, ObjectNode>> SHARED = Collections.synchronizedMap(new WeakHashMap<>());
+  
+  private record SharedKey(String name, FileType type, boolean allCopies) {
+  }
+  
+  /**
+   * The mappers used to parse shared resources.
+   * <P>
+   * The mapper only determines the structure of the tree, the modules and mixins of each instance are used when the tree is bound.
+   */
+  private static final Map<FileType, ObjectMapper> SHARED_MAPPERS = createSharedMappers();
+  
+  /**
+   * The tree loaded from the resource, and whether any errors were reported whilst loading it.
+   */
+  private record Loaded(ObjectNode tree, boolean failed) {
+  }
+  
+  private final ClassLoader classLoader;
   private final String resource;
+  private final String name;
   private final FileType type;
+  private final boolean allCopies;
+  private final boolean shared;
+  
+  private volatile ObjectNode tree;
 
   /**
    * Constructor.
    * 
-   * The path is passed directly to this.getClass().getResourceAsStream.
-   * There is no option for specifying a custom class loader.
+   * The path is interpreted as it would be by this.getClass().getResourceAsStream,
+   * it is relative to the package of this class unless it begins with a '/'.
    * 
    * @param resource The path to the resource to load.
    * @param fileType The type of file to process.
    */
   public ResourceGatherer(String resource, FileType fileType) {
+    this(null, resource, fileType, false, false);
+  }
+
+  /**
+   * Constructor.
+   * 
+   * @param classLoader The ClassLoader to load the resource with, if null the ClassLoader that loaded this class is used.
+   *     If a ClassLoader is provided the path is interpreted as it would be by {@link ClassLoader#getResource(java.lang.String)}, but any leading '/' is ignored.
+   * @param resource The path to the resource to load.
+   * @param fileType The type of file to process.
+   * @param allCopies If true every copy of the resource found by the ClassLoader will be loaded and merged.
+   * @param shared If true the parsed resource will be shared with other shared ResourceGatherers loading the same resource.
+   */
+  public ResourceGatherer(ClassLoader classLoader, String resource, FileType fileType, boolean allCopies, boolean shared) {
+    this.classLoader = classLoader == null ? defaultClassLoader() : classLoader;
     this.resource = resource;
+    this.name = classLoader == null ? resolveName(resource) : stripLeadingSlash(resource);
     this.type = fileType;
+    this.allCopies = allCopies;
+    this.shared = shared;
+  }
+  
+  private static Map<FileType, ObjectMapper> createSharedMappers() {
+    Map<FileType, ObjectMapper> mappers = new EnumMap<>(FileType.class);
+    mappers.put(FileType.Properties, JavaPropsMapper.builder().build());
+    mappers.put(FileType.Yaml, new ObjectMapper(new YAMLFactory()));
+    mappers.put(FileType.Json, new ObjectMapper());
+    return Collections.unmodifiableMap(mappers);
+  }
+  
+  private static ClassLoader defaultClassLoader() {
+    ClassLoader loader = ResourceGatherer.class.getClassLoader();
+    return loader == null ? ClassLoader.getSystemClassLoader() : loader;
+  }
+  
+  private static String stripLeadingSlash(String resource) {
+    return resource.startsWith("/") ? resource.substring(1) : resource;
+  }
+  
+  /**
+   * Convert a resource path to a ClassLoader resource name in the same way as {@link Class#getResource(java.lang.String)}.
+   */
+  private static String resolveName(String resource) {
+    if (resource.startsWith("/")) {
+      return resource.substring(1);
+    }
+    String packageName = ResourceGatherer.class.getPackageName();
+    return packageName.replace('.', '/') + "/" + resource;
   }
 
   @Override
   public P gatherParameters(Params4JSpi spi, P base) throws IOException {
-    
+    ObjectNode node = gatherOverlay(spi);
+    if (node.isEmpty()) {
+      return base;
+    }
     ObjectReader reader = type.getObjectMapper(spi).readerForUpdating(base);
-    
-    try (InputStream stream = this.getClass().getResourceAsStream(resource)) {
-      return reader.readValue(stream);
+    try {
+      return reader.readValue(node);
     } catch (Throwable ex) {
       logger.debug("Unable to read resource: {}", resource);
       return base;
     }
   }
 
+  @Override
+  public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+    ObjectNode result = tree;
+    if (result == null) {
+      synchronized (this) {
+        result = tree;
+        if (result == null) {
+          Loaded loaded = shared ? loadShared(spi) : load(spi, type.getObjectMapper(spi));
+          result = loaded.tree();
+          if (!loaded.failed()) {
+            tree = result;
+          }
+        }
+      }
+    }
+    return result;
+  }
+  
+  private Loaded loadShared(Params4JSpi spi) {
+    Map<SharedKey, ObjectNode> trees = SHARED.computeIfAbsent(classLoader, cl -> new ConcurrentHashMap<>());
+    SharedKey key = new SharedKey(name, type, allCopies);
+    // Held whilst loading so that the resource is only parsed once, even if it is gathered by multiple instances at the same time
+    synchronized (trees) {
+      ObjectNode result = trees.get(key);
+      if (result != null) {
+        return new Loaded(result, false);
+      }
+      Loaded loaded = load(spi, SHARED_MAPPERS.get(type));
+      if (!loaded.failed()) {
+        trees.put(key, loaded.tree());
+      }
+      return loaded;
+    }
+  }
+  
+  private Loaded load(Params4JSpi spi, ObjectMapper mapper) {
+    boolean failed = false;
+    List<URL> urls = new ArrayList<>();
+    try {
+      if (allCopies) {
+        urls.addAll(Collections.list(classLoader.getResources(name)));
+      } else {
+        URL url = classLoader.getResource(name);
+        if (url != null) {
+          urls.add(url);
+        }
+      }
+    } catch (Throwable ex) {
+      spi.reportError("Unable to find resource " + resource, ex);
+      failed = true;
+    }
+    if (urls.isEmpty()) {
+      logger.debug("Unable to read resource: {}", resource);
+    }
+    ObjectNode result = mapper.createObjectNode();
+    for (int i = urls.size() - 1; i >= 0; --i) {
+      URL url = urls.get(i);
+      try (InputStream stream = url.openStream()) {
+        JsonNode node = mapper.readTree(stream);
+        if (node instanceof ObjectNode objectNode) {
+          if (shared) {
+            // The tree may be used by instances with different parameters types, so it cannot depend on the type of this one
+            OverlayMerger.merge(result, objectNode);
+          } else {
+            spi.mergeOverlay(result, objectNode);
+          }
+        } else if (node != null && !node.isMissingNode()) {
+          spi.reportError("Resource " + url + " does not contain an object (" + (node == null ? null : node.getNodeType()) + ")", null);
+          failed = true;
+        }
+      } catch (Throwable ex) {
+        spi.reportError("Unable to read resource " + url, ex);
+        failed = true;
+      }
+    }
+    logger.debug("Loaded {} copies of resource {}", urls.size(), resource);
+    return new Loaded(result, failed);
+  }
+
+  /**
+   * Resources are assumed not to change whilst the process is running.
+   * 
+   * @return the name of the resource.
+   */
+  @Override
+  public Object getFingerprint() {
+    return resource;
+  }
+
   @Override
   public String toString() {
     return "Resource (" + resource + ")";
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.spudsoft.params4j.ChangeAware;
+import uk.co.spudsoft.params4j.OverlayGatherer;
+import uk.co.spudsoft.params4j.Params4JSpi;
+
+/**
+ * ParameterGather that gathers parameters from environment variables, using the documented properties of the parameters object to map them.
+ * <P>
+ * Unlike the {@link EnvironmentVariablesGatherer} the names of the environment variables are not rewritten to form property names.
+ * Instead the names are looked up in a table built from the properties returned by
+ * {@link uk.co.spudsoft.params4j.Params4J#getDocumentation(java.lang.Object, java.lang.String, java.util.List, java.util.List) getDocumentation},
+ * so the environment variable for a property is exactly the one listed by
+ * {@link uk.co.spudsoft.params4j.ConfigurationProperty#appendEnv(java.lang.StringBuilder, int, java.lang.String, java.lang.String, java.lang.String) appendEnv}.
+ * This means that camelCase properties can be set ("PREFIX_LOCALDATETIME" sets "localDateTime") and so can list items ("PREFIX_LIST_2" sets "list[2]").
+ * <P>
+ * Environment variable names are compared without regard to case.
+ * If the namePrefix is supplied (is not null or empty) only environment variables that begin with the prefix followed by '_' will be considered.
+ * Any of those environment variables that do not match a known property are logged as a warning, because they are probably mistakes.
+ * <P>
+ * The table is built the first time that parameters are gathered.
+ *
+ * @author jtalbut
+ *
+ * @param <P> The type of the parameters object.
+ */
+public class SchemaEnvironmentVariablesGatherer<P> implements OverlayGatherer<P>, ChangeAware {
+
+  private static final Logger logger = LoggerFactory.getLogger(SchemaEnvironmentVariablesGatherer.class);
+
+  /**
+   * The environment variables that begin with the prefix, with the prefix removed.
+   */
+  private final Map<String, String> variables;
+  private final boolean prefixed;
+  private final List<Pattern> terminalClasses;
+  private final List<Pattern> undocumentedClasses;
+
+  /**
+   * The property paths and values resolved from the variables.
+   */
+  private volatile Map<String, String> resolved;
+  private volatile List<String> unknown;
+
+  /**
+   * Constructor using the default environment.
+   *
+   * @param namePrefix The prefix that can be used to filter environment variables.
+   * @param terminalClasses List of regular expressions used to identify properties that are of terminal types, may be null.
+   * @param undocumentedClasses List of regular expressions used to identify properties that are of undocumented types, may be null.
+   */
+  public SchemaEnvironmentVariablesGatherer(String namePrefix, List<Pattern> terminalClasses, List<Pattern> undocumentedClasses) {
+    this(System.getenv(), namePrefix, terminalClasses, undocumentedClasses);
+  }
+
+  /**
+   * Constructor using a custom environment.
+   *
+   * @param map The environment variables.
+   * @param namePrefix The prefix that can be used to filter environment variables.
+   * @param terminalClasses List of regular expressions used to identify properties that are of terminal types, may be null.
+   * @param undocumentedClasses List of regular expressions used to identify properties that are of undocumented types, may be null.
+   */
+  public SchemaEnvironmentVariablesGatherer(Map<String, String> map, String namePrefix, List<Pattern> terminalClasses, List<Pattern> undocumentedClasses) {
+    this.prefixed = namePrefix != null && !namePrefix.isEmpty();
+    String prefix = prefixed ? namePrefix.toUpperCase(Locale.ROOT) + "_" : "";
+    Map<String, String> filtered = new HashMap<>();
+    for (Entry<String, String> entry : map.entrySet()) {
+      String key = entry.getKey();
+      if (entry.getValue() != null && key.length() > prefix.length() && key.toUpperCase(Locale.ROOT).startsWith(prefix)) {
+        filtered.put(key.substring(prefix.length()), entry.getValue());
+      }
+    }
+    this.variables = Map.copyOf(filtered);
+    this.terminalClasses = terminalClasses == null ? null : List.copyOf(terminalClasses);
+    this.undocumentedClasses = undocumentedClasses == null ? null : List.copyOf(undocumentedClasses);
+  }
+
+  private Map<String, String> resolve(Params4JSpi spi) {
+    Map<String, String> result = resolved;
+    if (result == null) {
+      EnvironmentVariableSchema schema = EnvironmentVariableSchema.of(spi.getDocumentation(terminalClasses, undocumentedClasses));
+      logger.debug("Built environment variable table with {} properties", schema.size());
+      result = new HashMap<>();
+      List<String> unknownNames = new ArrayList<>();
+      for (Entry<String, String> entry : variables.entrySet()) {
+        String path = schema.resolve(entry.getKey());
+        if (path == null) {
+          unknownNames.add(entry.getKey());
+        } else {
+          result.put(path, entry.getValue());
+        }
+      }
+      Collections.sort(unknownNames);
+      if (prefixed && !unknownNames.isEmpty()) {
+        logger.warn("Environment variables do not match any known property: {}", unknownNames);
+      }
+      result = Map.copyOf(result);
+      unknown = Collections.unmodifiableList(unknownNames);
+      resolved = result;
+    }
+    return result;
+  }
+
+  /**
+   * Get the names (without the prefix) of the environment variables that did not match any known property.
+   * @return the names of the environment variables that did not match any known property, or null if parameters have not yet been gathered.
+   */
+  public List<String> getUnknownVariables() {
+    return unknown;
+  }
+
+  @Override
+  public P gatherParameters(Params4JSpi spi, P base) throws IOException {
+    ObjectNode tree = gatherOverlay(spi);
+    if (tree.isEmpty()) {
+      return base;
+    }
+    ObjectReader reader = spi.getPropsMapper().readerForUpdating(base);
+    return reader.readValue(tree);
+  }
+
+  @Override
+  public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+    return spi.prepareTree("Environment variables", resolve(spi).entrySet(), Entry::getKey, Entry::getValue, null);
+  }
+
+  /**
+   * The environment is captured when the gatherer is constructed and cannot change.
+   *
+   * @return the captured environment variables.
+   */
+  @Override
+  public Object getFingerprint() {
+    return variables;
+  }
+
+  @Override
+  public String toString() {
+    return "Environment variables";
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.io.IOException;
+import uk.co.spudsoft.params4j.SecretHandle;
+
+/**
+ * Jackson module that allows String properties to be set from {@link SecretHandle}s embedded in a JSON tree.
+ * <P>
+ * Without this module Jackson would set String properties to the result of calling toString on the handle,
+ * with it they are set to the contents of the file (which is read without being cached in the handle).
+ * <P>
+ * This module is registered with the mappers created by Params4J when a lazy {@link SecretsGatherer} is configured,
+ * it must be registered with any custom mappers if lazy secrets are to be bound to String properties.
+ * <P>
+ * The contents of the file are read every time that a String property is bound from a handle.
+ * Properties of type SecretHandle do not need this module.
+ *
+ * @author jtalbut
+ */
+public class SecretHandleModule extends SimpleModule {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructor.
+   */
+  public SecretHandleModule() {
+    super("Params4JSecretHandles");
+    addDeserializer(String.class, new SecretStringDeserializer());
+  }
+
+  /**
+   * Deserializer for Strings that reads the contents of embedded SecretHandles and otherwise defers to the standard deserializer.
+   */
+  private static final class SecretStringDeserializer extends StdScalarDeserializer<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    SecretStringDeserializer() {
+      super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      if (p.hasToken(JsonToken.VALUE_EMBEDDED_OBJECT) && p.getEmbeddedObject() instanceof SecretHandle handle) {
+        return handle.readValue();
+      }
+      return StringDeserializer.instance.deserialize(p, ctxt);
+    }
+
+    @Override
+    public Object getEmptyValue(DeserializationContext ctxt) {
+      return "";
+    }
+
+  }
+
+}
@@ -4,18 +4,28 @@
  */
 package uk.co.spudsoft.params4j.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.POJONode;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import uk.co.spudsoft.params4j.ParameterGatherer;
+import uk.co.spudsoft.params4j.ChangeAware;
+import uk.co.spudsoft.params4j.OverlayGatherer;
 import uk.co.spudsoft.params4j.Params4JSpi;
+import uk.co.spudsoft.params4j.SecretHandle;
 
 /**
  * A ParameterGatherer that collects parameters from a directory hierarchy.
@@ -26,6 +36,8 @@ import uk.co.spudsoft.params4j.Params4JSpi;
  * Note that each entire file is read in as a single parameter value, the files are not parsed.
  * 
  * This is aimed at allowing the injection of Kubernetes secrets into the parameters object (hence the name) but can used for other purposes.
+ * If the root is a Kubernetes Secret volume (it contains a "..data" symlink) the files are read from the generation directory that "..data" points to,
+ * so that all the secrets come from the same generation.
  * 
  * The various limit parameters are provided to restrict the time and memory wasted by a bad configuration.
  * In a standard situation the limits should be set to values that are larger than any expected values.
@@ -34,15 +46,28 @@ import uk.co.spudsoft.params4j.Params4JSpi;
  * 
   * @param <P> The type of the parameters object.
 */
-public class SecretsGatherer<P> implements ParameterGatherer<P> {
+public class SecretsGatherer<P> implements OverlayGatherer<P>, ChangeAware {
 
   private static final Logger logger = LoggerFactory.getLogger(SecretsGatherer.class);
   
+  private static final ObjectMapper FINGERPRINT_MAPPER = new ObjectMapper();
+  
+  /**
+   * Hidden files and directories are never read, so changes to them are not relevant.
+   */
+  private static final Predicate<Path> NOT_HIDDEN = path -> {
+    Path name = path.getFileName();
+    return name == null || !name.toString().startsWith(".");
+  };
+  
   private final Path root;
   private final int fileSizeLimit;
   private final int fileCountLimit;
   private final int fileDepthLimit;
   private final Charset charset;
+  private final int readConcurrency;
+  private final Executor readExecutor;
+  private final boolean lazy;
 
   /**
    * Constructor.
@@ -57,30 +82,225 @@ public class SecretsGatherer<P> implements ParameterGatherer<P> {
    * @param charset The charset to use when reading the file.
    */
   public SecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset) {
+    this(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset, 1);
+  }
+  
+  /**
+   * Constructor.
+   * 
+   * @param root The base path from which to start searching, typically something like "/etc/[service name]/conf.d"
+   * @param fileSizeLimit The maximum size of file to attempt to load.
+   * The recommendation is to set this to slightly larger than your standard secret length.
+   * @param fileCountLimit The maximum number of files to attempt to load.
+   * The recommendation is to set this to one more than the number of secrets in your parameters hierarchy.
+   * @param fileDepthLimit The maximum depth of hierarchy to traverse.
+   * The recommendation is to set this to one more than the maximum depth of secrets in your parameters hierarchy.
+   * @param charset The charset to use when reading the file.
+   * @param readConcurrency The maximum number of files to read concurrently.
+   * If greater than one files are read on virtual threads (on JDK 21+, or a pool of daemon threads on earlier JDKs) whilst the directory tree is walked,
+   * otherwise each file is read in turn as it is found.
+   */
+  public SecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset, int readConcurrency) {
+    this(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset, readConcurrency, null, false);
+  }
+  
+  /**
+   * Constructor.
+   * 
+   * @param root The base path from which to start searching, typically something like "/etc/[service name]/conf.d"
+   * @param fileSizeLimit The maximum size of file to attempt to load.
+   * The recommendation is to set this to slightly larger than your standard secret length.
+   * @param fileCountLimit The maximum number of files to attempt to load.
+   * The recommendation is to set this to one more than the number of secrets in your parameters hierarchy.
+   * @param fileDepthLimit The maximum depth of hierarchy to traverse.
+   * The recommendation is to set this to one more than the maximum depth of secrets in your parameters hierarchy.
+   * @param charset The charset to use when reading the file.
+   * @param readConcurrency The maximum number of files to read concurrently.
+   * If greater than one files are read on the readExecutor whilst the directory tree is walked,
+   * otherwise each file is read in turn as it is found.
+   * @param readExecutor The executor on which files are read when readConcurrency is greater than one,
+   * if null virtual threads are used (on JDK 21+, or a pool of daemon threads that is only used for reading files on earlier JDKs).
+   */
+  public SecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset, int readConcurrency, Executor readExecutor) {
+    this(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset, readConcurrency, readExecutor, false);
+  }
+  
+  /**
+   * Constructor.
+   * 
+   * @param root The base path from which to start searching, typically something like "/etc/[service name]/conf.d"
+   * @param fileSizeLimit The maximum size of file to attempt to load.
+   * The recommendation is to set this to slightly larger than your standard secret length.
+   * @param fileCountLimit The maximum number of files to attempt to load.
+   * The recommendation is to set this to one more than the number of secrets in your parameters hierarchy.
+   * @param fileDepthLimit The maximum depth of hierarchy to traverse.
+   * The recommendation is to set this to one more than the maximum depth of secrets in your parameters hierarchy.
+   * @param charset The charset to use when reading the file.
+   * @param readConcurrency The maximum number of files to read concurrently, ignored in lazy mode.
+   * @param lazy If true no files are read when parameters are gathered, instead each secret is a {@link SecretHandle} that reads the file when it is used.
+   * Properties of type SecretHandle are set to the handle, properties of type String are set to the contents of the file when the parameters are bound.
+   */
+  public SecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset, int readConcurrency, boolean lazy) {
+    this(root, fileSizeLimit, fileCountLimit, fileDepthLimit, charset, readConcurrency, null, lazy);
+  }
+  
+  /**
+   * Constructor.
+   * 
+   * @param root The base path from which to start searching, typically something like "/etc/[service name]/conf.d"
+   * @param fileSizeLimit The maximum size of file to attempt to load.
+   * The recommendation is to set this to slightly larger than your standard secret length.
+   * @param fileCountLimit The maximum number of files to attempt to load.
+   * The recommendation is to set this to one more than the number of secrets in your parameters hierarchy.
+   * @param fileDepthLimit The maximum depth of hierarchy to traverse.
+   * The recommendation is to set this to one more than the maximum depth of secrets in your parameters hierarchy.
+   * @param charset The charset to use when reading the file.
+   * @param readConcurrency The maximum number of files to read concurrently, ignored in lazy mode.
+   * @param readExecutor The executor on which files are read when readConcurrency is greater than one, if null a shared default is used.
+   * @param lazy If true no files are read when parameters are gathered, instead each secret is a {@link SecretHandle} that reads the file when it is used.
+   */
+  public SecretsGatherer(Path root, int fileSizeLimit, int fileCountLimit, int fileDepthLimit, Charset charset, int readConcurrency, Executor readExecutor, boolean lazy) {
     this.root = root;
     this.fileSizeLimit = fileSizeLimit;
     this.fileCountLimit = fileCountLimit;
     this.fileDepthLimit = fileDepthLimit;
     this.charset = charset;
+    this.readConcurrency = readConcurrency;
+    this.readExecutor = readExecutor;
+    this.lazy = lazy;
+  }
+  
+  /**
+   * Return true if this gatherer is in lazy mode, producing {@link SecretHandle}s rather than reading files.
+   * @return true if this gatherer is in lazy mode.
+   */
+  public boolean isLazy() {
+    return lazy;
+  }
+  
+  private SecretsWalker createWalker(Path start, Params4JSpi spi, Consumer<Path> dirHandler) {
+    Executor executor = null;
+    if (readConcurrency > 1) {
+      executor = readExecutor == null ? SharedExecutors.reads() : readExecutor;
+    }
+    return new SecretsWalker(start, spi.getJsonMapper(), fileSizeLimit, fileCountLimit, charset, dirHandler, true
+            , executor, readConcurrency, lazy);
   }
     
   @Override
   public P gatherParameters(Params4JSpi spi, P base) throws IOException {
-    SecretsWalker visitor = new SecretsWalker(root, spi.getJsonMapper(), fileSizeLimit, fileCountLimit, charset, dir -> {
-              try {
-                spi.watch(dir);
-              } catch (IOException ex) {
-                logger.warn("Failed to establish watch on {}: ", dir, ex);
-              }
-            });
-    Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), fileDepthLimit, visitor);
-    ObjectNode node = visitor.getObjectNode();
+    ObjectNode node = gatherOverlay(spi);
     if (!node.isEmpty()) {
       ObjectReader reader = spi.getJsonMapper().readerForUpdating(base);
       base = reader.readValue(node);
     }
     return base;
   }
+
+  @Override
+  public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+    Path generation = AtomicWriterLayout.currentGeneration(root);
+    if (generation.equals(root)) {
+      SecretsWalker visitor = createWalker(root, spi, dir -> watch(spi, dir));
+      Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), fileDepthLimit, visitor);
+      return visitor.getObjectNode();
+    } else {
+      // Every change to an atomic writer volume swaps the "..data" symlink in the root, so only the root needs to be watched
+      watch(spi, root);
+      SecretsWalker visitor = createWalker(generation, spi, null);
+      Files.walkFileTree(generation, EnumSet.of(FileVisitOption.FOLLOW_LINKS), fileDepthLimit, visitor);
+      return visitor.getObjectNode();
+    }
+  }
+  
+  private static void watch(Params4JSpi spi, Path dir) {
+    try {
+      spi.watch(dir, NOT_HIDDEN);
+    } catch (IOException ex) {
+      logger.warn("Failed to establish watch on {}: ", dir, ex);
+    }
+  }
+  
+  /**
+   * Re-read only the secrets that have changed.
+   * <P>
+   * When every changed path is a file that is already a value in the previous overlay only those files are read.
+   * Any other change (files or directories being added or removed, or a hidden entry such as the Kubernetes "..data" link being swapped)
+   * results in the entire hierarchy being read again.
+   * 
+   * @param spi Instance of Params4JSpi for accessing common functionality.
+   * @param previous The overlay most recently returned by this gatherer.
+   * @param changed The paths that have changed.
+   * @return A JSON tree containing the secrets.
+   * @throws IOException if something goes wrong.
+   */
+  @Override
+  public ObjectNode gatherOverlay(Params4JSpi spi, ObjectNode previous, Set<Path> changed) throws IOException {
+    ObjectNode result = previous.deepCopy();
+    for (Path path : changed) {
+      if (!updateSecret(result, path)) {
+        logger.debug("Change to {} is not a known secret, reading all secrets", path);
+        return gatherOverlay(spi);
+      }
+    }
+    return result;
+  }
+  
+  private boolean updateSecret(ObjectNode overlay, Path path) {
+    if (!path.startsWith(root)) {
+      return false;
+    }
+    Path relative = root.relativize(path);
+    int depth = relative.getNameCount();
+    if (depth == 0 || depth > fileDepthLimit) {
+      return false;
+    }
+    ObjectNode parent = overlay;
+    for (int i = 0; i < depth - 1; ++i) {
+      if (parent.get(relative.getName(i).toString()) instanceof ObjectNode child) {
+        parent = child;
+      } else {
+        return false;
+      }
+    }
+    String filename = relative.getFileName().toString();
+    JsonNode existing = parent.get(filename);
+    boolean handle = existing instanceof POJONode pojo && pojo.getPojo() instanceof SecretHandle;
+    if (filename.startsWith(".") || existing == null || !(existing.isTextual() || handle)) {
+      return false;
+    }
+    try {
+      BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+      if (!attrs.isRegularFile() || attrs.size() > fileSizeLimit) {
+        return false;
+      }
+      if (handle) {
+        logger.trace("Replacing handle for secret {}", path);
+        parent.putPOJO(filename, new SecretHandle(path, attrs.size(), attrs.lastModifiedTime().toInstant(), fileSizeLimit, charset));
+        return true;
+      }
+      logger.trace("Re-reading secret {}", path);
+      parent.put(filename, new String(Files.readAllBytes(path), charset));
+      return true;
+    } catch (IOException ex) {
+      logger.trace("Failed to re-read secret {}: ", path, ex);
+      return false;
+    }
+  }
+  
+  /**
+   * Walk the directory tree without reading any files and return a hash of the attributes of the files found.
+   * 
+   * @return a hash of the attributes of the files that would be read by {@link #gatherOverlay(uk.co.spudsoft.params4j.Params4JSpi)}.
+   * @throws IOException if something goes wrong.
+   */
+  @Override
+  public Object getFingerprint() throws IOException {
+    Path generation = AtomicWriterLayout.currentGeneration(root);
+    SecretsWalker visitor = new SecretsWalker(generation, FINGERPRINT_MAPPER, fileSizeLimit, fileCountLimit, charset, null, false);
+    Files.walkFileTree(generation, EnumSet.of(FileVisitOption.FOLLOW_LINKS), fileDepthLimit, visitor);
+    return visitor.getTreeHash();
+  }
   
   @Override
   public String toString() {
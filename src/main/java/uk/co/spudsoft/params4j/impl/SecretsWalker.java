@@ -26,14 +26,30 @@ import java.nio.file.FileVisitResult;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.co.spudsoft.params4j.SecretHandle;
 
 /**
  * FileVisitor used by SecretsGatherer to construct a JSON ObjectNode containing files from the root directory.
+ * <P>
+ * If an Executor is provided the files are read concurrently whilst the walk continues.
+ * A placeholder is added to the ObjectNode for each file as it is visited, so the layout of the ObjectNode is the same as it would be if the files were read sequentially,
+ * and the placeholders are replaced with the file contents (or removed, if the file cannot be read) by {@link #getObjectNode()}.
+ * <P>
+ * In lazy mode no files are read, each value is a {@link SecretHandle} (in a POJONode) that reads the file when it is used.
+ * 
  * @author jtalbut
  */
 public class SecretsWalker extends SimpleFileVisitor<Path> {
@@ -46,11 +62,23 @@ public class SecretsWalker extends SimpleFileVisitor<Path> {
   private final int fileCountLimit;
   private final Charset charset;
   private final Consumer<Path> dirHandler;
+  private final boolean readFiles;
+  private final Executor readExecutor;
+  private final Semaphore readPermits;
+  private final boolean lazy;
+  private final List<PendingRead> pendingReads = new ArrayList<>();
 
   private final ObjectNode objectNode;
   private final Map<Path, ObjectNode> nodes = new HashMap<>();
   private ObjectNode current;
   private int fileCount;
+  private long treeHash = 17;
+  
+  /**
+   * A file that is being read concurrently, and the placeholder in the ObjectNode that will hold its contents.
+   */
+  private record PendingRead(ObjectNode parent, String filename, Path file, CompletableFuture<String> content) {
+  }
 
   /**
    * Constructor.
@@ -63,8 +91,63 @@ public class SecretsWalker extends SimpleFileVisitor<Path> {
    * @param charset The charset to use when reading the file.
    * @param dirHandler Optional consumer called for each directory that is entered.
    */
-  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Externable objects are mutable")
   public SecretsWalker(Path root, ObjectMapper objectMapper, int fileSizeLimit, int fileCountLimit, Charset charset, Consumer<Path> dirHandler) {
+    this(root, objectMapper, fileSizeLimit, fileCountLimit, charset, dirHandler, true);
+  }
+
+  /**
+   * Constructor.
+   * @param root The base path from which to start searching, typically something like "/etc/[service name]/conf.d"
+   * @param objectMapper The ObjectMapper to use to build the resulting ObjectNode.
+   * @param fileSizeLimit The maximum size of file to attempt to load.
+   * The recommendation is to set this to slightly larger than your standard secret length.
+   * @param fileCountLimit The maximum number of files to attempt to load.
+   * The recommendation is to set this to one more than the number of secrets in your parameters hierarchy.
+   * @param charset The charset to use when reading the file.
+   * @param dirHandler Optional consumer called for each directory that is entered.
+   * @param readFiles If false the contents of files are not read, only the {@link #getTreeHash() tree hash} is calculated.
+   */
+  public SecretsWalker(Path root, ObjectMapper objectMapper, int fileSizeLimit, int fileCountLimit, Charset charset, Consumer<Path> dirHandler, boolean readFiles) {
+    this(root, objectMapper, fileSizeLimit, fileCountLimit, charset, dirHandler, readFiles, null, 1);
+  }
+
+  /**
+   * Constructor.
+   * @param root The base path from which to start searching, typically something like "/etc/[service name]/conf.d"
+   * @param objectMapper The ObjectMapper to use to build the resulting ObjectNode.
+   * @param fileSizeLimit The maximum size of file to attempt to load.
+   * The recommendation is to set this to slightly larger than your standard secret length.
+   * @param fileCountLimit The maximum number of files to attempt to load.
+   * The recommendation is to set this to one more than the number of secrets in your parameters hierarchy.
+   * @param charset The charset to use when reading the file.
+   * @param dirHandler Optional consumer called for each directory that is entered.
+   * @param readFiles If false the contents of files are not read, only the {@link #getTreeHash() tree hash} is calculated.
+   * @param readExecutor Optional Executor on which to read files, if null files are read sequentially by the thread walking the tree.
+   * @param readConcurrency The maximum number of files to read concurrently when a readExecutor is provided.
+   */
+  public SecretsWalker(Path root, ObjectMapper objectMapper, int fileSizeLimit, int fileCountLimit, Charset charset, Consumer<Path> dirHandler, boolean readFiles
+          , Executor readExecutor, int readConcurrency) {
+    this(root, objectMapper, fileSizeLimit, fileCountLimit, charset, dirHandler, readFiles, readExecutor, readConcurrency, false);
+  }
+
+  /**
+   * Constructor.
+   * @param root The base path from which to start searching, typically something like "/etc/[service name]/conf.d"
+   * @param objectMapper The ObjectMapper to use to build the resulting ObjectNode.
+   * @param fileSizeLimit The maximum size of file to attempt to load.
+   * The recommendation is to set this to slightly larger than your standard secret length.
+   * @param fileCountLimit The maximum number of files to attempt to load.
+   * The recommendation is to set this to one more than the number of secrets in your parameters hierarchy.
+   * @param charset The charset to use when reading the file.
+   * @param dirHandler Optional consumer called for each directory that is entered.
+   * @param readFiles If false the contents of files are not read, only the {@link #getTreeHash() tree hash} is calculated.
+   * @param readExecutor Optional Executor on which to read files, if null files are read sequentially by the thread walking the tree.
+   * @param readConcurrency The maximum number of files to read concurrently when a readExecutor is provided.
+   * @param lazy If true files are not read, instead each value in the ObjectNode is a {@link SecretHandle} that reads the file when it is used.
+   */
+  @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Externable objects are mutable")
+  public SecretsWalker(Path root, ObjectMapper objectMapper, int fileSizeLimit, int fileCountLimit, Charset charset, Consumer<Path> dirHandler, boolean readFiles
+          , Executor readExecutor, int readConcurrency, boolean lazy) {
     this.root = root;
     this.objectMapper = objectMapper;
     this.objectNode = objectMapper.createObjectNode();
@@ -73,17 +156,73 @@ public class SecretsWalker extends SimpleFileVisitor<Path> {
     this.fileCountLimit = fileCountLimit;
     this.charset = charset;
     this.dirHandler = dirHandler;
+    this.readFiles = readFiles;
+    this.readExecutor = lazy ? null : readExecutor;
+    this.readPermits = this.readExecutor == null ? null : new Semaphore(Math.max(1, readConcurrency));
+    this.lazy = lazy;
   }
 
   /**
    * Get the ObjectNode that reflects the directory/file structure underneath the root path.
+   * <P>
+   * If files are being read concurrently this waits for all the reads to complete.
+   * 
    * @return the ObjectNode constructed by walking the file tree.
    */
   @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Externable object is mutable")
   public ObjectNode getObjectNode() {
+    for (PendingRead read : pendingReads) {
+      try {
+        read.parent().put(read.filename(), read.content().join());
+      } catch (Throwable ex) {
+        logger.trace("Ignoring file {} because it could not be read: ", read.file(), ex);
+        read.parent().remove(read.filename());
+      }
+    }
+    pendingReads.clear();
     return objectNode;
   }
+  
+  private String readFile(Path file) {
+    try (FileInputStream fis = new FileInputStream(file.toFile())) {
+      return new String(fis.readAllBytes(), charset);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+  
+  private CompletableFuture<String> readFileAsync(Path file) {
+    readPermits.acquireUninterruptibly();
+    try {
+      return CompletableFuture.supplyAsync(() -> {
+        try {
+          return readFile(file);
+        } finally {
+          readPermits.release();
+        }
+      }, readExecutor);
+    } catch (RejectedExecutionException ex) {
+      readPermits.release();
+      return CompletableFuture.failedFuture(ex);
+    }
+  }
 
+  /**
+   * Get a hash of the attributes of the files and directories that were (or would have been) used to construct the ObjectNode.
+   * <P>
+   * The hash covers the relative path, size, last modified time and file key of each file and the relative path of each directory.
+   * No file contents are included, so the hash can be calculated without reading any files.
+   * 
+   * @return a hash of the attributes of the files and directories that were (or would have been) used to construct the ObjectNode.
+   */
+  public long getTreeHash() {
+    return treeHash;
+  }
+  
+  private void hash(long value) {
+    treeHash = Long.rotateLeft(treeHash ^ value, 27) * 0x9E3779B97F4A7C15L;
+  }
+  
   @Override
   public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
     logger.trace("Leaving dir: {}", dir);
@@ -107,9 +246,24 @@ public class SecretsWalker extends SimpleFileVisitor<Path> {
         } else if (++fileCount > fileCountLimit) {
           logger.trace("Ignoring file {} because too many files have been processed ({} > {})", file, fileCount, fileCountLimit);
         } else {
-          try (FileInputStream fis = new FileInputStream(file.toFile())) {
-            String value = new String(fis.readAllBytes(), charset);
-            current.put(filename, value);
+          hash(root.relativize(file).toString().hashCode());
+          hash(attrs.size());
+          hash(attrs.lastModifiedTime().toMillis());
+          hash(Objects.hashCode(attrs.fileKey()));
+          if (!readFiles) {
+            return FileVisitResult.CONTINUE;
+          }
+          if (lazy) {
+            current.putPOJO(filename, new SecretHandle(file, attrs.size(), attrs.lastModifiedTime().toInstant(), fileSizeLimit, charset));
+            return FileVisitResult.CONTINUE;
+          }
+          if (readExecutor != null) {
+            current.putNull(filename);
+            pendingReads.add(new PendingRead(current, filename, file, readFileAsync(file)));
+            return FileVisitResult.CONTINUE;
+          }
+          try {
+            current.put(filename, readFile(file));
           } catch (Throwable ex) {
             logger.trace("Ignoring file {} because it could not be read: ", file, ex);
           }
@@ -131,6 +285,7 @@ public class SecretsWalker extends SimpleFileVisitor<Path> {
         return FileVisitResult.SKIP_SUBTREE;
       } else {
         logger.trace("Entering dir: {}", dir);
+        hash(root.relativize(dir).toString().hashCode());
         if (dirHandler != null) {
           dirHandler.accept(dir);
         }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The executors used by Params4J when no executor has been configured.
+ * <P>
+ * On JDK 21+ each executor starts a virtual thread for each task.
+ * On earlier JDKs each executor is a separate cached pool of daemon threads, so that work of one kind never waits for threads busy with work of another kind.
+ * <P>
+ * Each executor is only created when it is first used.
+ *
+ * @author jtalbut
+ */
+final class SharedExecutors {
+
+  private static final Logger logger = LoggerFactory.getLogger(SharedExecutors.class);
+
+  private SharedExecutors() {
+  }
+
+  /**
+   * Holder for the notification executor.
+   */
+  private static final class Notifications {
+    private static final Executor INSTANCE = create("Params4JNotifier");
+  }
+
+  /**
+   * Holder for the executor for change callbacks.
+   */
+  private static final class Callbacks {
+    private static final Executor INSTANCE = create("Params4JReload");
+  }
+
+  /**
+   * Holder for the executor for blocking reads.
+   */
+  private static final class Reads {
+    private static final Executor INSTANCE = create("Params4JReader");
+  }
+
+  private static Executor create(String name) {
+    try {
+      // Executors.newVirtualThreadPerTaskExecutor is only available on JDK 21+
+      return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      logger.debug("Virtual threads are not available ({}), using platform threads for {}", ex.toString(), name);
+      AtomicInteger count = new AtomicInteger();
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Get the executor used to deliver change notifications when no executor has been configured.
+   * @return the executor used to deliver change notifications when no executor has been configured.
+   */
+  static Executor notifications() {
+    return Notifications.INSTANCE;
+  }
+
+  /**
+   * Get the executor on which {@link FileWatcher}s call their callbacks.
+   * <P>
+   * Each FileWatcher submits at most one task at a time, so a slow callback only delays the changes for its own FileWatcher.
+   * 
+   * @return the executor on which FileWatchers call their callbacks.
+   */
+  static Executor callbacks() {
+    return Callbacks.INSTANCE;
+  }
+
+  /**
+   * Get the executor used for blocking file reads when no executor has been configured.
+   * <P>
+   * The executor itself is not bounded, callers must limit the number of tasks that they submit.
+   *
+   * @return the executor used for blocking file reads when no executor has been configured.
+   */
+  static Executor reads() {
+    return Reads.INSTANCE;
+  }
+
+}
@@ -5,12 +5,14 @@
 package uk.co.spudsoft.params4j.impl;
 
 import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.dataformat.javaprop.JavaPropsSchema;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map.Entry;
 import java.util.Properties;
-import uk.co.spudsoft.params4j.ParameterGatherer;
+import uk.co.spudsoft.params4j.ChangeAware;
+import uk.co.spudsoft.params4j.OverlayGatherer;
 import uk.co.spudsoft.params4j.Params4JSpi;
 
 /**
@@ -25,7 +27,7 @@ import uk.co.spudsoft.params4j.Params4JSpi;
  * 
  * @param <P> The type of the parameters object.
  */
-public class SystemPropertiesGatherer<P> implements ParameterGatherer<P> {
+public class SystemPropertiesGatherer<P> implements OverlayGatherer<P>, ChangeAware {
 
   private final Properties sysProps;
   private final String propertyPrefix;
@@ -54,18 +56,29 @@ public class SystemPropertiesGatherer<P> implements ParameterGatherer<P> {
   
   @Override
   public P gatherParameters(Params4JSpi spi, P base) throws IOException {
-    ObjectReader reader = spi.getPropsMapper()
-            .readerForUpdating(base)
-            .with(new JavaPropsSchema().withPathSeparatorEscapeChar('\\'))
-            ;
-    
-    byte[] props = spi.prepareProperties("System properties", sysProps.entrySet(), Entry::getKey, Entry::getValue, propertyPrefix);
-    if (props.length > 0) {
-      return reader.readValue(props);
-    } else {
+    ObjectNode tree = gatherOverlay(spi);
+    if (tree.isEmpty()) {
       return base;
     }
-       
+    ObjectReader reader = spi.getPropsMapper().readerForUpdating(base);
+    return reader.readValue(tree);
+  }
+
+  @Override
+  public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+    return spi.prepareTree("System properties", sysProps.entrySet(), Entry::getKey, Entry::getValue, propertyPrefix);
+  }
+
+  /**
+   * System properties can be changed at runtime, so the fingerprint is a copy of all the system properties.
+   * <P>
+   * A hash of the properties is not sufficient, different sets of properties can have the same hash.
+   * 
+   * @return a copy of all the system properties.
+   */
+  @Override
+  public Object getFingerprint() {
+    return new HashMap<>(sysProps);
   }
 
   @Override
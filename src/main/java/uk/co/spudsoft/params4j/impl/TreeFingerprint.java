@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A 128 bit fingerprint of the content of a JSON tree.
+ * <P>
+ * The fingerprint is calculated by walking the tree, without serializing it, and is canonical:
+ * the order of fields within an object does not affect it (trees that are {@link JsonNode#equals(java.lang.Object) equal} have equal fingerprints).
+ * Numbers are hashed by their textual representation, so an int and a long with the same value have the same fingerprint.
+ * <P>
+ * This is not a cryptographic hash, it is intended to detect accidental changes to configuration without having to retain the entire tree.
+ *
+ * @param high The high 64 bits of the fingerprint.
+ * @param low The low 64 bits of the fingerprint.
+ * 
+ * @author jtalbut
+ */
+public record TreeFingerprint(long high, long low) {
+  
+  private static final long SEED_HIGH = 0xcbf29ce484222325L;
+  private static final long SEED_LOW = 0x9e3779b97f4a7c15L;
+  private static final long PRIME_HIGH = 0x100000001b3L;
+  private static final long PRIME_LOW = 0xc2b2ae3d27d4eb4fL;
+  
+  private static final int TAG_NULL = 1;
+  private static final int TAG_OBJECT = 2;
+  private static final int TAG_ARRAY = 3;
+  private static final int TAG_TEXT = 4;
+  private static final int TAG_NUMBER = 5;
+  private static final int TAG_BOOLEAN = 6;
+  private static final int TAG_OTHER = 7;
+  
+  /**
+   * Calculate the fingerprint of a JSON tree.
+   * @param node The root of the tree, may be null (which has the same fingerprint as a missing node).
+   * @return The fingerprint of the tree.
+   */
+  public static TreeFingerprint of(JsonNode node) {
+    Hasher hasher = new Hasher();
+    hasher.node(node);
+    return new TreeFingerprint(fmix(hasher.high), fmix(hasher.low));
+  }
+  
+  private static long fmix(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+  
+  private static final class Hasher {
+    
+    private long high = SEED_HIGH;
+    private long low = SEED_LOW;
+    
+    private void add(long value) {
+      high = (high ^ value) * PRIME_HIGH;
+      low = Long.rotateLeft(low ^ (value * PRIME_LOW), 31) * PRIME_LOW;
+    }
+    
+    private void add(String value) {
+      add(value.length());
+      for (int i = 0; i < value.length(); ++i) {
+        add(value.charAt(i));
+      }
+    }
+    
+    private void node(JsonNode node) {
+      if (node == null || node.isMissingNode() || node.isNull()) {
+        add(TAG_NULL);
+      } else if (node.isObject()) {
+        add(TAG_OBJECT);
+        add(node.size());
+        List<String> names = new ArrayList<>(node.size());
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+          names.add(field.getKey());
+        }
+        Collections.sort(names);
+        for (String name : names) {
+          add(name);
+          node(node.get(name));
+        }
+      } else if (node.isArray()) {
+        add(TAG_ARRAY);
+        add(node.size());
+        for (JsonNode item : node) {
+          node(item);
+        }
+      } else if (node.isTextual()) {
+        add(TAG_TEXT);
+        add(node.textValue());
+      } else if (node.isNumber()) {
+        add(TAG_NUMBER);
+        add(node.asText());
+      } else if (node.isBoolean()) {
+        add(TAG_BOOLEAN);
+        add(node.booleanValue() ? 1 : 0);
+      } else {
+        add(TAG_OTHER);
+        add(node.toString());
+      }
+    }
+  }
+  
+  @Override
+  public String toString() {
+    return String.format("%016x%016x", high, low);
+  }
+  
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * A single WatchService, and a single thread reading from it, shared by all the {@link FileWatcher}s watching paths on one FileSystem.
+ * <P>
+ * Each directory is registered with the WatchService once, however many FileWatchers are watching it, and events are fanned out to each of them
+ * (using the path that each FileWatcher used when it asked to watch the directory).
+ * <P>
+ * The FileWatchers also share a single scheduler thread for timing their quiet periods, no other work is done on this thread.
+ * <P>
+ * The watch budget is counted here, across all FileSystems, because the number of watches is limited per user rather than per FileWatcher.
+ * <P>
+ * Registrations are released when the last FileWatcher stops watching a directory, or when the directory is deleted (and its WatchKey becomes invalid).
+ * When there are no registrations left the WatchService is closed and its thread ends, a new one is created if another directory is watched.
+ *
+ * @author jtalbut
+ */
+final class WatchHub {
+
+  private static final Logger logger = LoggerFactory.getLogger(WatchHub.class);
+
+  /**
+   * The hubs for each FileSystem, all access to the hubs and their registrations is synchronized on this map.
+   */
+  private static final Map<FileSystem, WatchHub> HUBS = new HashMap<>();
+  
+  private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+  private final FileSystem fileSystem;
+  private final WatchService watchService;
+  private final Map<Path, Registration> registrations = new HashMap<>();
+  private final Map<WatchKey, Registration> registrationsByKey = new ConcurrentHashMap<>();
+  private Thread thread;
+
+  /**
+   * A directory registered with the WatchService and the FileWatchers watching it.
+   */
+  private static final class Registration {
+    private final WatchKey key;
+    private final Set<Path> paths = new HashSet<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    Registration(WatchKey key) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * A FileWatcher watching a directory, and the path that it used to ask to watch the directory.
+   */
+  private record Subscriber(FileWatcher watcher, Path path) {
+  }
+  
+  private static ScheduledExecutorService createScheduler() {
+    ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "Params4JDebounce");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.setRemoveOnCancelPolicy(true);
+    return scheduler;
+  }
+
+  private WatchHub(FileSystem fileSystem) throws IOException {
+    this.fileSystem = fileSystem;
+    this.watchService = fileSystem.newWatchService();
+  }
+  
+  /**
+   * Get the scheduler shared by all FileWatchers for timing their quiet periods.
+   * <P>
+   * Tasks run on the scheduler must be short, anything that might block must be passed to another executor.
+   * 
+   * @return the scheduler shared by all FileWatchers for timing their quiet periods.
+   */
+  static ScheduledExecutorService scheduler() {
+    return SCHEDULER;
+  }
+
+  /**
+   * Watch a directory on behalf of a FileWatcher, if the watch budget allows it.
+   * <P>
+   * The budget is a limit on the number of directories registered with all the WatchServices in the JVM, 
+   * because the limit that it protects (fs.inotify.max_user_watches on Linux) is not specific to any one FileWatcher.
+   * A directory that is already registered (by any FileWatcher) can always be watched, because it does not use any more of the budget.
+   * <P>
+   * The hub for the FileSystem of the directory is created if necessary.
+   * 
+   * @param path The directory to watch, as the FileWatcher knows it.
+   * @param watcher The FileWatcher to be notified of changes.
+   * @param budget The maximum number of directories that may be registered in the JVM.
+   * @return true if the directory is being watched, false if it could not be registered without exceeding the budget.
+   * @throws IOException if the directory cannot be registered with the WatchService.
+   */
+  static boolean register(Path path, FileWatcher watcher, int budget) throws IOException {
+    synchronized (HUBS) {
+      WatchHub hub = HUBS.get(path.getFileSystem());
+      if ((hub == null || !hub.registrations.containsKey(path.toAbsolutePath().normalize())) && countRegistrations() >= budget) {
+        return false;
+      }
+      if (hub == null) {
+        hub = new WatchHub(path.getFileSystem());
+        HUBS.put(path.getFileSystem(), hub);
+      }
+      try {
+        hub.add(path, watcher);
+      } finally {
+        if (hub.registrationsByKey.isEmpty()) {
+          hub.close();
+        }
+      }
+      return true;
+    }
+  }
+  
+  /**
+   * Stop watching a directory on behalf of a FileWatcher.
+   * <P>
+   * When no FileWatchers are watching the directory it is cancelled with the WatchService,
+   * and when no directories are registered the WatchService is closed and its thread ends.
+   * 
+   * @param path The directory, as the FileWatcher knows it.
+   * @param watcher The FileWatcher.
+   */
+  static void unregister(Path path, FileWatcher watcher) {
+    synchronized (HUBS) {
+      WatchHub hub = HUBS.get(path.getFileSystem());
+      if (hub != null) {
+        Registration registration = hub.registrations.get(path.toAbsolutePath().normalize());
+        if (registration != null) {
+          registration.subscribers.removeIf(subscriber -> subscriber.watcher() == watcher && subscriber.path().equals(path));
+          if (registration.subscribers.isEmpty()) {
+            registration.key.cancel();
+            hub.release(registration);
+          }
+        }
+      }
+    }
+  }
+  
+  /**
+   * Get the number of directories registered with the WatchService for a FileSystem.
+   * @param fileSystem The FileSystem.
+   * @return the number of directories registered with the WatchService for the FileSystem.
+   */
+  static int getRegistrationCount(FileSystem fileSystem) {
+    synchronized (HUBS) {
+      WatchHub hub = HUBS.get(fileSystem);
+      return hub == null ? 0 : hub.registrationsByKey.size();
+    }
+  }
+  
+  /**
+   * Get the number of directories registered with all the WatchServices in the JVM.
+   * <P>
+   * This is the usage of the watch budget.
+   * 
+   * @return the number of directories registered with all the WatchServices in the JVM.
+   */
+  static int getRegistrationCount() {
+    synchronized (HUBS) {
+      return countRegistrations();
+    }
+  }
+  
+  /**
+   * Must be called whilst synchronized on HUBS.
+   */
+  private static int countRegistrations() {
+    int count = 0;
+    for (WatchHub hub : HUBS.values()) {
+      count += hub.registrationsByKey.size();
+    }
+    return count;
+  }
+  
+  /**
+   * Return true if there is an active hub (with a WatchService and thread) for the FileSystem.
+   * @param fileSystem The FileSystem.
+   * @return true if there is an active hub for the FileSystem.
+   */
+  static boolean isActive(FileSystem fileSystem) {
+    synchronized (HUBS) {
+      return HUBS.containsKey(fileSystem);
+    }
+  }
+
+  private void add(Path path, FileWatcher watcher) throws IOException {
+    Path key = path.toAbsolutePath().normalize();
+    Registration registration = registrations.get(key);
+    if (registration == null) {
+      WatchKey watchKey = key.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+      registration = registrationsByKey.get(watchKey);
+      if (registration == null) {
+        registration = new Registration(watchKey);
+        registrationsByKey.put(watchKey, registration);
+      }
+      registrations.put(key, registration);
+      registration.paths.add(key);
+    }
+    for (Subscriber subscriber : registration.subscribers) {
+      if (subscriber.watcher() == watcher && subscriber.path().equals(path)) {
+        return;
+      }
+    }
+    registration.subscribers.add(new Subscriber(watcher, path));
+    if (thread == null) {
+      thread = new Thread(this::eventLoop, "Params4JWatchHub");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+  
+  /**
+   * Forget a registration, and close the hub if it was the last one.
+   * <P>
+   * Must be called whilst synchronized on HUBS.
+   */
+  private void release(Registration registration) {
+    registrationsByKey.remove(registration.key);
+    for (Path path : registration.paths) {
+      registrations.remove(path, registration);
+    }
+    logger.debug("Released watch on {}", registration.paths);
+    if (registrationsByKey.isEmpty()) {
+      close();
+    }
+  }
+  
+  /**
+   * Close the WatchService (which ends the thread) and remove this hub.
+   * <P>
+   * Must be called whilst synchronized on HUBS.
+   */
+  private void close() {
+    HUBS.remove(fileSystem, this);
+    try {
+      watchService.close();
+    } catch (IOException ex) {
+      logger.debug("Failed to close WatchService for {}: ", fileSystem, ex);
+    }
+    logger.debug("Closed {}", this);
+  }
+
+  private void eventLoop() {
+    while (true) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (InterruptedException | ClosedWatchServiceException ex) {
+        return;
+      }
+      Registration registration = registrationsByKey.get(key);
+      List<WatchEvent<?>> events = key.pollEvents();
+      boolean valid = key.reset();
+      if (registration == null) {
+        logger.trace("No registration for {}", key.watchable());
+        continue;
+      }
+      for (Subscriber subscriber : registration.subscribers) {
+        List<Path> changed = new ArrayList<>(events.size());
+        for (WatchEvent<?> event : events) {
+          if (event.kind() == OVERFLOW || !(event.context() instanceof Path)) {
+            changed.add(subscriber.path());
+          } else {
+            changed.add(subscriber.path().resolve((Path) event.context()));
+          }
+        }
+        try {
+          subscriber.watcher().onEvents(changed);
+          if (!valid) {
+            subscriber.watcher().onInvalidated(subscriber.path());
+          }
+        } catch (Throwable ex) {
+          logger.warn("Failed to pass events to {}: ", subscriber.watcher(), ex);
+        }
+      }
+      if (!valid) {
+        // The directory has been deleted (or the key cancelled), the key can never be used again
+        synchronized (HUBS) {
+          if (registrationsByKey.containsKey(key)) {
+            release(registration);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "WatchHub{" + fileSystem + '}';
+  }
+  
+}
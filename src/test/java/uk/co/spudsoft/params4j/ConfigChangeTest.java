@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class ConfigChangeTest {
+  
+  @Test
+  public void testAffects() {
+    ConfigChange<String> change = new ConfigChange<>("a", "b", Arrays.asList("/child/password", "/list"));
+    assertTrue(change.affects(""));
+    assertTrue(change.affects("/child"));
+    assertTrue(change.affects("/child/password"));
+    assertFalse(change.affects("/child/pass"));
+    assertFalse(change.affects("/child/username"));
+    assertTrue(change.affects("/list/0"));
+    assertFalse(change.affects("/value"));
+  }
+  
+}
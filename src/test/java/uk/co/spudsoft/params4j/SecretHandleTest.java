@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class SecretHandleTest {
+  
+  @Test
+  public void testSizeLimit() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path secret = Files.createTempFile(tempRoot.toPath(), "SecretHandleTest", ".txt");
+    Files.writeString(secret, "secret");
+    
+    assertEquals("secret", new SecretHandle(secret, 6, Instant.now(), Long.MAX_VALUE, StandardCharsets.UTF_8).readValue());
+    assertEquals("secret", new SecretHandle(secret, 6, Instant.now(), Integer.MAX_VALUE, StandardCharsets.UTF_8).readValue());
+    assertEquals("secret", new SecretHandle(secret, 6, Instant.now(), 6, StandardCharsets.UTF_8).readValue());
+    assertThrows(IOException.class, () -> new SecretHandle(secret, 6, Instant.now(), 5, StandardCharsets.UTF_8).readValue());
+    assertThrows(IllegalArgumentException.class, () -> new SecretHandle(secret, 6, Instant.now(), -1, StandardCharsets.UTF_8));
+  }
+  
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import uk.co.spudsoft.params4j.DebouncePolicy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class DebouncerTest {
+  
+  private static final long MS = 1000000L;
+  
+  private static Set<Path> paths(String name) {
+    return Collections.singleton(Path.of(name));
+  }
+  
+  @Test
+  public void testQuietPeriod() {
+    Debouncer debouncer = new Debouncer(DebouncePolicy.builder().quietPeriod(Duration.ofMillis(100)).maxWait(Duration.ofSeconds(1)).build());
+    assertEquals(Debouncer.IDLE, debouncer.deadline());
+    assertNull(debouncer.fire(0));
+    
+    debouncer.event(1000 * MS, paths("a"));
+    assertEquals(1100 * MS, debouncer.deadline());
+    debouncer.event(1050 * MS, paths("b"));
+    assertEquals(1150 * MS, debouncer.deadline());
+    
+    assertEquals(2, debouncer.fire(1150 * MS).size());
+    assertEquals(Debouncer.IDLE, debouncer.deadline());
+    assertEquals(Duration.ofMillis(150), debouncer.getLastLatency());
+  }
+  
+  @Test
+  public void testMaxWait() {
+    Debouncer debouncer = new Debouncer(DebouncePolicy.builder().quietPeriod(Duration.ofMillis(100)).maxWait(Duration.ofMillis(250)).build());
+    for (long t = 0; t < 500; t += 50) {
+      debouncer.event(t * MS, paths("a" + t));
+    }
+    // Events keep arriving within the quiet period, but the deadline never moves past the maximum wait
+    assertEquals(250 * MS, debouncer.deadline());
+  }
+  
+  @Test
+  public void testAdaptive() {
+    Debouncer debouncer = new Debouncer(DebouncePolicy.builder().quietPeriod(Duration.ofMillis(100)).maxWait(Duration.ofSeconds(5)).adaptive(true).build());
+    debouncer.event(0, paths("a"));
+    assertEquals(100 * MS, debouncer.deadline());
+    debouncer.fire(100 * MS);
+    
+    // A straggler arrives shortly after delivery, so the quiet period is extended
+    debouncer.event(180 * MS, paths("b"));
+    assertTrue(debouncer.getEffectiveQuietPeriod().compareTo(Duration.ofMillis(100)) > 0);
+    assertEquals(180 * MS + debouncer.getEffectiveQuietPeriod().toNanos(), debouncer.deadline());
+    
+    // Quick bursts bring it back down, but never below the configured quiet period
+    long t = 1000 * MS;
+    for (int i = 0; i < 20; ++i) {
+      debouncer.event(t, paths("c"));
+      t += MS;
+    }
+    assertEquals(Duration.ofMillis(100), debouncer.getEffectiveQuietPeriod());
+  }
+  
+  @Test
+  public void testNotAdaptive() {
+    Debouncer debouncer = new Debouncer(DebouncePolicy.builder().quietPeriod(Duration.ofMillis(100)).build());
+    debouncer.event(0, paths("a"));
+    debouncer.fire(100 * MS);
+    debouncer.event(180 * MS, paths("b"));
+    assertEquals(Duration.ofMillis(100), debouncer.getEffectiveQuietPeriod());
+  }
+  
+  @Test
+  public void testInvalidPolicy() {
+    assertThrows(IllegalArgumentException.class, () -> DebouncePolicy.builder().quietPeriod(Duration.ZERO).build());
+    assertThrows(IllegalArgumentException.class, () -> DebouncePolicy.builder().quietPeriod(Duration.ofSeconds(2)).maxWait(Duration.ofSeconds(1)).build());
+  }
+  
+}
@@ -13,14 +13,22 @@ import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.co.spudsoft.params4j.ConfigChange;
+import uk.co.spudsoft.params4j.DebouncePolicy;
 import uk.co.spudsoft.params4j.Params4J;
+import uk.co.spudsoft.params4j.Params4JSpi;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -100,4 +108,129 @@ public class DirGathererTest {
     
     
   }
+  
+  @Test
+  public void testParsedFilesAreCached() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path tempDir = Files.createTempDirectory(tempRoot.toPath(), "DirGathererCacheTest");
+    File first = new File(tempDir.toFile(), "first.yaml");
+    File second = new File(tempDir.toFile(), "second.json");
+    writeToFile(first, "value: 19");
+    writeToFile(second, "{\"check\":true}");
+    
+    Params4JSpi spi = (Params4JSpi) Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .create();
+    
+    DirGatherer<DummyParameters> gatherer = new DirGatherer<>(tempDir.toFile(), FileType.Json, FileType.Yaml);
+    DirGatherer<DummyParameters> hashing = new DirGatherer<>(tempDir.toFile(), true, FileType.Json, FileType.Yaml);
+    assertEquals(19, gatherer.gatherOverlay(spi).get("value").intValue());
+    assertEquals(19, hashing.gatherOverlay(spi).get("value").intValue());
+    assertEquals(0, gatherer.getCacheHits());
+    assertEquals(2, gatherer.getCacheMisses());
+    
+    assertEquals(19, gatherer.gatherParameters(spi, new DummyParameters()).getValue());
+    assertEquals(2, gatherer.getCacheHits());
+    assertEquals(2, gatherer.getCacheMisses());
+    
+    // Same size and modification time, only detected by hashing the contents
+    FileTime modified = Files.getLastModifiedTime(first.toPath());
+    writeToFile(first, "value: 23");
+    Files.setLastModifiedTime(first.toPath(), modified);
+    assertEquals(19, gatherer.gatherOverlay(spi).get("value").intValue());
+    assertEquals(23, hashing.gatherOverlay(spi).get("value").intValue());
+    assertEquals(1, hashing.getCacheHits());
+    assertEquals(3, hashing.getCacheMisses());
+    
+    Files.setLastModifiedTime(first.toPath(), FileTime.fromMillis(modified.toMillis() + 10000));
+    assertEquals(23, gatherer.gatherOverlay(spi).get("value").intValue());
+    assertEquals(3, gatherer.getCacheMisses());
+  }
+  
+  @Test
+  public void testConfigChangeNotification() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path tempDir = Files.createTempDirectory(tempRoot.toPath(), "DirGathererChangeTest");
+    writeToFile(new File(tempDir.toFile(), "test.yaml"), "value: 19\nchild:\n  username: user\n  password: pass");
+    
+    Params4J<DummyParameters> p4j = new Params4JFactoryImpl<DummyParameters>()
+            .withConstructor(() -> new DummyParameters())
+            .withDirGatherer(tempDir.toFile(), FileType.Yaml)
+            .withTreeGathering(true)
+            .withDebouncePolicy(DebouncePolicy.builder().quietPeriod(Duration.ofMillis(100)).maxWait(Duration.ofSeconds(1)).build())
+            .create();
+    assertEquals(19, p4j.gatherParameters().getValue());
+    
+    AtomicReference<DummyChildParameter> child = new AtomicReference<>();
+    AtomicReference<Integer> value = new AtomicReference<>();
+    // Subscribers are called in order, so by the time the child is received the value subscriber has been considered
+    assertTrue(p4j.subscribe("/VALUE", Integer.class, section -> value.set(section)));
+    assertTrue(p4j.subscribe("/child", DummyChildParameter.class, section -> child.set(section)));
+    
+    AtomicReference<ConfigChange<DummyParameters>> received = new AtomicReference<>();
+    assertTrue(p4j.notifyOfConfigChanges(change -> received.set(change)));
+    
+    writeToFile(new File(tempDir.toFile(), "test.yaml"), "value: 19\nchild:\n  username: user\n  password: new-pass");
+    
+    long start = System.currentTimeMillis();
+    while (received.get() == null || child.get() == null) {
+      if (System.currentTimeMillis() > start + 70000) {
+        throw new TimeoutException();
+      }
+      Thread.sleep(100);
+    }
+    
+    ConfigChange<DummyParameters> change = received.get();
+    assertEquals(Arrays.asList("/child/password"), change.getChangedPaths());
+    assertEquals("pass", change.getPrevious().getChild().getPassword());
+    assertEquals("new-pass", change.getCurrent().getChild().getPassword());
+    assertTrue(change.affects("/child"));
+    
+    Duration latency = ((Params4JImpl<DummyParameters>) p4j).getFileWatcher().getLastLatency();
+    assertTrue(latency.compareTo(Duration.ofMillis(100)) >= 0);
+    assertTrue(latency.compareTo(Duration.ofSeconds(1)) <= 0);
+    
+    assertEquals("new-pass", child.get().getPassword());
+    assertNull(value.get());
+  }
+  
+  @Test
+  public void testSubscriptionWithFingerprintOnly() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path tempDir = Files.createTempDirectory(tempRoot.toPath(), "DirGathererFingerprintTest");
+    writeToFile(new File(tempDir.toFile(), "test.yaml"), "value: 19\nchild:\n  username: user\n  password: pass");
+    
+    Params4J<DummyParameters> p4j = new Params4JFactoryImpl<DummyParameters>()
+            .withConstructor(() -> new DummyParameters())
+            .withDirGatherer(tempDir.toFile(), FileType.Yaml)
+            .withTreeGathering(true)
+            .withFingerprintOnly(true)
+            .withDebouncePolicy(DebouncePolicy.builder().quietPeriod(Duration.ofMillis(100)).maxWait(Duration.ofSeconds(1)).build())
+            .create();
+    assertEquals(19, p4j.gatherParameters().getValue());
+    
+    // Without the previous tree the unchanged section must still be recognised as unchanged on the first reload
+    AtomicReference<DummyChildParameter> child = new AtomicReference<>();
+    AtomicReference<Integer> value = new AtomicReference<>();
+    assertTrue(p4j.subscribe("/value", Integer.class, section -> value.set(section)));
+    assertTrue(p4j.subscribe("/child", DummyChildParameter.class, section -> child.set(section)));
+    AtomicReference<ConfigChange<DummyParameters>> received = new AtomicReference<>();
+    assertTrue(p4j.notifyOfConfigChanges(change -> received.set(change)));
+    
+    writeToFile(new File(tempDir.toFile(), "test.yaml"), "value: 19\nchild:\n  username: user\n  password: new-pass");
+    
+    long start = System.currentTimeMillis();
+    while (received.get() == null || child.get() == null) {
+      if (System.currentTimeMillis() > start + 70000) {
+        throw new TimeoutException();
+      }
+      Thread.sleep(100);
+    }
+    assertEquals("new-pass", child.get().getPassword());
+    assertNull(value.get());
+    assertEquals(Arrays.asList("/child/password"), received.get().getChangedPaths());
+  }
 }
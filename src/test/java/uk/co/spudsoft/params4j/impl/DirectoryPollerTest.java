@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import uk.co.spudsoft.params4j.DebouncePolicy;
+import uk.co.spudsoft.params4j.WatchMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class DirectoryPollerTest {
+  
+  private static final DebouncePolicy POLICY = DebouncePolicy.builder().quietPeriod(Duration.ofMillis(50)).maxWait(Duration.ofSeconds(1)).build();
+  
+  @Test
+  public void testPollingDetectsChanges() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path tempDir = Files.createTempDirectory(tempRoot.toPath(), "DirectoryPollerTest");
+    Files.writeString(tempDir.resolve("existing.yaml"), "value: 1");
+    
+    CompletableFuture<Set<Path>> changes = new CompletableFuture<>();
+    FileWatcher watcher = new FileWatcher(changes::complete, POLICY, WatchMode.Polling, Duration.ofMillis(20), Duration.ofMillis(200), Integer.MAX_VALUE);
+    watcher.watch(tempDir);
+    assertEquals(Set.of(tempDir), watcher.getPolledPaths());
+    assertTrue(watcher.start());
+    
+    Files.writeString(tempDir.resolve("added.yaml"), "value: 2");
+    
+    assertEquals(Set.of(tempDir.resolve("added.yaml")), changes.get(10, TimeUnit.SECONDS));
+  }
+  
+  @Test
+  public void testIntervalBacksOff() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path tempDir = Files.createTempDirectory(tempRoot.toPath(), "DirectoryPollerTest");
+    
+    FileWatcher watcher = new FileWatcher(changed -> {}, POLICY, WatchMode.Polling, null, null, Integer.MAX_VALUE);
+    DirectoryPoller poller = new DirectoryPoller(tempDir, watcher, Duration.ofMillis(10), Duration.ofMillis(40));
+    assertEquals(Duration.ofMillis(10), poller.getInterval());
+    poller.start();
+    long start = System.currentTimeMillis();
+    while (poller.getPollCount() < 6 && System.currentTimeMillis() - start < 10000) {
+      Thread.sleep(10);
+    }
+    assertEquals(Duration.ofMillis(40), poller.getInterval());
+  }
+  
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.util.Map;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class DummyMapParameters {
+  
+  private Map<String, String> headers;
+  private Map<String, DummyChildParameter> children;
+  private DummyChildParameter child;
+
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  public void setHeaders(Map<String, String> headers) {
+    this.headers = headers;
+  }
+
+  public Map<String, DummyChildParameter> getChildren() {
+    return children;
+  }
+
+  public void setChildren(Map<String, DummyChildParameter> children) {
+    this.children = children;
+  }
+
+  public DummyChildParameter getChild() {
+    return child;
+  }
+
+  public void setChild(DummyChildParameter child) {
+    this.child = child;
+  }
+  
+}
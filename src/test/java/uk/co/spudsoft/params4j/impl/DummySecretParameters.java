@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import uk.co.spudsoft.params4j.SecretHandle;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class DummySecretParameters {
+  
+  private DummyChildParameter child;
+  private SecretHandle keystore;
+
+  public DummyChildParameter getChild() {
+    return child;
+  }
+
+  public void setChild(DummyChildParameter child) {
+    this.child = child;
+  }
+
+  public SecretHandle getKeystore() {
+    return keystore;
+  }
+
+  public void setKeystore(SecretHandle keystore) {
+    this.keystore = keystore;
+  }
+  
+}
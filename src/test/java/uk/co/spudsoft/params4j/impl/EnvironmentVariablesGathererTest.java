@@ -5,6 +5,7 @@
 package uk.co.spudsoft.params4j.impl;
 
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -13,6 +14,7 @@ import uk.co.spudsoft.params4j.Params4JSpi;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  *
@@ -51,6 +53,37 @@ public class EnvironmentVariablesGathererTest {
     assertNull(dp.getList());
   }
   
+  @Test
+  public void testValuesAreNotCorrupted() throws Exception {
+    Params4JSpi p4j = (Params4JSpi) Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .create();
+    
+    Map<String, String> env = new HashMap<>();
+    env.put("PREFIX_LIST[0]", "line one\nline two");
+    env.put("PREFIX_LIST[1]", "a=b:c");
+    env.put("PREFIX_LIST[2]", "C:\\temp\\new");
+    env.put("PREFIX_LIST[3]", "  padded ");
+    EnvironmentVariablesGatherer<DummyParameters> gatherer = new EnvironmentVariablesGatherer<>(env, "prefix.", true);
+    DummyParameters dp = gatherer.gatherParameters(p4j, new DummyParameters());
+    assertEquals(Arrays.asList("line one\nline two", "a=b:c", "C:\\temp\\new", "  padded "), dp.getList());
+    
+    assertEquals("{\"list\":[\"line one\\nline two\",\"a=b:c\",\"C:\\\\temp\\\\new\",\"  padded \"]}", gatherer.gatherOverlay(p4j).toString());
+  }
+  
+  @Test
+  public void testIndex() throws Exception {
+    Map<String, String> env = new HashMap<>();
+    env.put("PREFIX_VALUE", "17");
+    env.put("PREFIX_SNAKE__CASE", "snake");
+    env.put("OTHER_VALUE", "other");
+    assertEquals(Map.of(".value", "17", ".snake_case", "snake"), EnvironmentVariablesGatherer.buildIndex(env, "prefix", true));
+    assertEquals(Map.of("PREFIX.VALUE", "17", "PREFIX.SNAKE_CASE", "snake", "OTHER.VALUE", "other"), EnvironmentVariablesGatherer.buildIndex(env, null, false));
+    assertEquals(Map.of(), EnvironmentVariablesGatherer.buildIndex(env, "prefix", false));
+    
+    // The index of the process environment is shared
+    assertSame(new EnvironmentVariablesGatherer<>("prefix", true).getFingerprint(), new EnvironmentVariablesGatherer<>("prefix", true).getFingerprint());
+  }
   
   @Test
   public void testEmpty() throws Exception {
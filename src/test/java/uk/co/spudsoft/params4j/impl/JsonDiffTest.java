@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class JsonDiffTest {
+  
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  
+  private static JsonNode json(String json) throws Exception {
+    return MAPPER.readTree(json);
+  }
+  
+  @Test
+  public void testEqual() throws Exception {
+    assertEquals(Collections.emptyList(), JsonDiff.diff(json("{\"a\":{\"b\":[1,2]}}"), json("{\"a\":{\"b\":[1,2]}}")));
+    assertEquals(Collections.emptyList(), JsonDiff.diff(null, null));
+  }
+  
+  @Test
+  public void testNull() throws Exception {
+    assertEquals(Arrays.asList(""), JsonDiff.diff(null, json("{\"a\":1}")));
+    assertEquals(Arrays.asList(""), JsonDiff.diff(json("{\"a\":1}"), null));
+  }
+  
+  @Test
+  public void testChanges() throws Exception {
+    JsonNode previous = json("{\"a\":1,\"b\":{\"c\":\"x\",\"d\":\"y\"},\"e\":[1,2],\"f/g~\":true,\"h\":{}}");
+    JsonNode current = json("{\"a\":1,\"b\":{\"c\":\"x\",\"d\":\"z\"},\"e\":[1,3,4],\"f/g~\":false,\"h\":7,\"i\":null}");
+    assertEquals(Arrays.asList("/b/d", "/e/1", "/e/2", "/f~1g~0", "/h", "/i"), JsonDiff.diff(previous, current));
+  }
+  
+}
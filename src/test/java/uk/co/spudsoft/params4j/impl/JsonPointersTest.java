@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class JsonPointersTest {
+  
+  @Test
+  public void testFind() throws Exception {
+    JsonNode root = new ObjectMapper().readTree("{\"database\":{\"Primary\":{\"url\":\"jdbc:x\"}},\"list\":[{\"a\":1},{\"a\":2}]}");
+    
+    assertEquals(root, JsonPointers.find(root, ""));
+    assertEquals("jdbc:x", JsonPointers.find(root, "/database/Primary/url").textValue());
+    assertEquals("jdbc:x", JsonPointers.find(root, "/DATABASE/primary/URL").textValue());
+    assertEquals(2, JsonPointers.find(root, "/LIST/1/A").intValue());
+    assertTrue(JsonPointers.find(root, "/database/secondary").isMissingNode());
+    assertTrue(JsonPointers.find(root, "/list/2").isMissingNode());
+    assertTrue(JsonPointers.find(null, "/database").isMissingNode());
+    assertThrows(IllegalArgumentException.class, () -> JsonPointers.find(root, "database"));
+  }
+  
+}
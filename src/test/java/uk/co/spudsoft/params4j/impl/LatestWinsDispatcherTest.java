@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class LatestWinsDispatcherTest {
+  
+  private static void awaitSize(List<?> list, int size) throws InterruptedException {
+    long start = System.currentTimeMillis();
+    while (list.size() < size && System.currentTimeMillis() - start < 10000) {
+      Thread.sleep(10);
+    }
+  }
+  
+  @Test
+  public void testSlowListenerOnlySeesLatest() throws Exception {
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> received = new CopyOnWriteArrayList<>();
+    LatestWinsDispatcher<Integer> dispatcher = new LatestWinsDispatcher<>(LatestWinsDispatcher.defaultExecutor(), value -> {
+      received.add(value);
+      entered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }, null, "Test");
+    
+    dispatcher.offer(1);
+    assertTrue(entered.await(10, TimeUnit.SECONDS));
+    dispatcher.offer(2);
+    dispatcher.offer(3);
+    dispatcher.offer(4);
+    release.countDown();
+    
+    awaitSize(received, 2);
+    Thread.sleep(100);
+    assertEquals(List.of(1, 4), received);
+  }
+  
+  @Test
+  public void testCombinerAndFailures() throws Exception {
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> received = new CopyOnWriteArrayList<>();
+    LatestWinsDispatcher<String> dispatcher = new LatestWinsDispatcher<>(Runnable::run, value -> {
+      received.add(value);
+      throw new IllegalStateException("Listener failure");
+    }, (older, newer) -> older + newer, "Test");
+    
+    // A failing listener continues to receive values
+    dispatcher.offer("a");
+    dispatcher.offer("b");
+    assertEquals(List.of("a", "b"), received);
+    
+    LatestWinsDispatcher<String> slow = new LatestWinsDispatcher<>(LatestWinsDispatcher.defaultExecutor(), value -> {
+      received.add(value);
+      entered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }, (older, newer) -> older + newer, "Test");
+    slow.offer("c");
+    assertTrue(entered.await(10, TimeUnit.SECONDS));
+    slow.offer("d");
+    slow.offer("e");
+    release.countDown();
+    awaitSize(received, 4);
+    assertEquals(List.of("a", "b", "c", "de"), received);
+  }
+  
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import uk.co.spudsoft.params4j.OverlayGatherer;
+import uk.co.spudsoft.params4j.ParameterGatherer;
+import uk.co.spudsoft.params4j.Params4J;
+import uk.co.spudsoft.params4j.Params4JFactory;
+import uk.co.spudsoft.params4j.Params4JSpi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class OverlayMergerTest {
+  
+  private final ObjectMapper mapper = new ObjectMapper();
+  
+  private ObjectNode parse(String json) throws Exception {
+    return (ObjectNode) mapper.readTree(json);
+  }
+  
+  @Test
+  public void testMerge() throws Exception {
+    ObjectNode target = parse("{\"value\":1,\"list\":[\"a\"],\"child\":{\"username\":\"u\",\"password\":\"p\"},\"gone\":{\"x\":1}}");
+    ObjectNode overlay = parse("{\"value\":2,\"list\":[\"b\"],\"child\":{\"password\":\"q\"},\"gone\":null,\"extra\":true}");
+    OverlayMerger.merge(target, overlay);
+    assertEquals(parse("{\"value\":2,\"list\":[\"a\",\"b\"],\"child\":{\"username\":\"u\",\"password\":\"q\"},\"gone\":null,\"extra\":true}"), target);
+    
+    // The overlay must not be altered, nor referenced by the target
+    assertEquals(parse("{\"value\":2,\"list\":[\"b\"],\"child\":{\"password\":\"q\"},\"gone\":null,\"extra\":true}"), overlay);
+    ((ObjectNode) target.get("child")).put("password", "r");
+    assertEquals("q", overlay.get("child").get("password").textValue());
+  }
+  
+  @Test
+  public void testMergeIgnoresCase() throws Exception {
+    OverlayMerger merger = new OverlayMerger(mapper, mapper.constructType(DummyParameters.class));
+    ObjectNode target = parse("{\"localDateTime\":\"2022-01-10T17:10\",\"child\":{\"userName\":\"u\"}}");
+    merger.mergeOverlay(target, parse("{\"localdatetime\":\"2022-01-10T18:10\",\"CHILD\":{\"username\":\"v\"}}"));
+    assertEquals(parse("{\"localDateTime\":\"2022-01-10T18:10\",\"child\":{\"userName\":\"v\"}}"), target);
+    assertFalse(target.has("localdatetime"));
+    
+    // Without a type the names must match exactly
+    target = parse("{\"localDateTime\":\"2022-01-10T17:10\"}");
+    OverlayMerger.merge(target, parse("{\"localdatetime\":\"2022-01-10T18:10\"}"));
+    assertEquals(parse("{\"localDateTime\":\"2022-01-10T17:10\",\"localdatetime\":\"2022-01-10T18:10\"}"), target);
+  }
+  
+  @Test
+  public void testMapKeysAreNotFolded() throws Exception {
+    OverlayMerger merger = new OverlayMerger(mapper, mapper.constructType(DummyMapParameters.class));
+    ObjectNode target = mapper.createObjectNode();
+    merger.mergeOverlay(target, parse("{\"headers\":{\"X-Foo\":\"a\"},\"CHILD\":{\"username\":\"u\"},\"children\":{\"A\":{\"userName\":\"x\"}}}"));
+    merger.mergeOverlay(target, parse("{\"HEADERS\":{\"x-foo\":\"b\"},\"child\":{\"USERNAME\":\"v\"},\"children\":{\"a\":{\"password\":\"y\"},\"A\":{\"USERNAME\":\"z\"}}}"));
+    assertEquals(parse("{\"headers\":{\"X-Foo\":\"a\",\"x-foo\":\"b\"},\"CHILD\":{\"username\":\"v\"},\"children\":{\"A\":{\"userName\":\"z\"},\"a\":{\"password\":\"y\"}}}"), target);
+  }
+  
+  /**
+   * Create a gatherer that always returns the same overlay.
+   */
+  private static <P> OverlayGatherer<P> fixedGatherer(String json) {
+    return new OverlayGatherer<P>() {
+      @Override
+      public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+        return (ObjectNode) spi.getJsonMapper().readTree(json);
+      }
+
+      @Override
+      public P gatherParameters(Params4JSpi spi, P base) throws IOException {
+        return spi.getPropsMapper().readerForUpdating(base).readValue(gatherOverlay(spi));
+      }
+    };
+  }
+  
+  @Test
+  public void testTreeGatheringKeepsMapKeys() throws Exception {
+    List<ParameterGatherer<DummyMapParameters>> gatherers = Arrays.asList(
+            fixedGatherer("{\"headers\":{\"X-Foo\":\"a\"},\"child\":{\"username\":\"u\"}}")
+            , fixedGatherer("{\"headers\":{\"x-foo\":\"b\"},\"CHILD\":{\"Username\":\"v\"}}")
+            , fixedGatherer("{\"HEADERS\":{\"X-Foo\":\"c\"}}")
+    );
+    Params4JFactory<DummyMapParameters> sequentialFactory = Params4J.<DummyMapParameters>factory().withConstructor(() -> new DummyMapParameters());
+    Params4JFactory<DummyMapParameters> treeFactory = Params4J.<DummyMapParameters>factory().withConstructor(() -> new DummyMapParameters()).withTreeGathering(true);
+    for (ParameterGatherer<DummyMapParameters> gatherer : gatherers) {
+      sequentialFactory.withGatherer(gatherer);
+      treeFactory.withGatherer(gatherer);
+    }
+    DummyMapParameters sequential = sequentialFactory.create().gatherParameters();
+    DummyMapParameters tree = treeFactory.create().gatherParameters();
+    
+    assertEquals(Map.of("X-Foo", "c", "x-foo", "b"), sequential.getHeaders());
+    assertEquals(sequential.getHeaders(), tree.getHeaders());
+    assertEquals("v", tree.getChild().getUsername());
+  }
+  
+  @Test
+  public void testMergeMatchesJacksonMerging() throws Exception {
+    Params4JSpi spi = (Params4JSpi) Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .create();
+    ObjectMapper jsonMapper = spi.getJsonMapper();
+    
+    ObjectNode first = parse("{\"value\":1,\"list\":[\"a\",\"b\"],\"child\":{\"username\":\"u\",\"password\":\"p\"}}");
+    ObjectNode second = parse("{\"list\":[\"c\"],\"localDateTime\":\"2022-01-10T17:10\",\"child\":{\"password\":\"q\"}}");
+    ObjectNode third = parse("{\"value\":3,\"check\":true}");
+    
+    DummyParameters sequential = new DummyParameters();
+    for (ObjectNode overlay : new ObjectNode[] {first, second, third}) {
+      sequential = jsonMapper.readerForUpdating(sequential).readValue(overlay);
+    }
+    
+    ObjectNode merged = mapper.createObjectNode();
+    for (ObjectNode overlay : new ObjectNode[] {first, second, third}) {
+      OverlayMerger.merge(merged, overlay);
+    }
+    DummyParameters once = jsonMapper.readerForUpdating(new DummyParameters()).readValue(merged);
+    
+    assertEquals(jsonMapper.valueToTree(sequential), jsonMapper.<ObjectNode>valueToTree(once));
+  }
+  
+}
@@ -0,0 +1,684 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DeserializationProblemHandler;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import uk.co.spudsoft.params4j.ChangeAware;
+import uk.co.spudsoft.params4j.FileType;
+import uk.co.spudsoft.params4j.OverlayGatherer;
+import uk.co.spudsoft.params4j.Params4J;
+import uk.co.spudsoft.params4j.Params4JFactory;
+import uk.co.spudsoft.params4j.Params4JSpi;
+import uk.co.spudsoft.params4j.ReloadPolicy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class Params4JImplTest {
+
+  private Params4JFactory<DummyParameters> factory() {
+    Map<String, String> env = new HashMap<>();
+    env.put("PREFIX_VALUE", "31");
+    env.put("PREFIX_LIST[0]", "env");
+    env.put("PREFIX_LOCALDATETIME", "2022-01-10T19:10");
+    return Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .withResourceGatherer("/test1.properties", FileType.Properties)
+            .withGatherer(new SecretsGatherer<>(new File(Helpers.getResourcePath("/secrets")).toPath(), 100, 100, 4, StandardCharsets.UTF_8))
+            .withGatherer((spi, base) -> {
+              base.setCheck(base.getValue() == 23);
+              return base;
+            })
+            .withGatherer(new EnvironmentVariablesGatherer<>(env, "prefix", true));
+  }
+
+  @Test
+  public void testGatherExecutorMatchesSequential() throws Exception {
+    DummyParameters sequential = factory().create().gatherParameters();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      DummyParameters parallel = factory().withGatherExecutor(executor).create().gatherParameters();
+
+      assertEquals(31, parallel.getValue());
+      assertEquals(Arrays.asList("first", "second", "env"), parallel.getList());
+      assertEquals("2022-01-10T19:10", parallel.getLocalDateTime().toString());
+      assertEquals("user", parallel.getChild().getUsername());
+      assertEquals(Boolean.TRUE, parallel.getCheck());
+
+      assertEquals(sequential.getValue(), parallel.getValue());
+      assertEquals(sequential.getList(), parallel.getList());
+      assertEquals(sequential.getLocalDateTime(), parallel.getLocalDateTime());
+      assertEquals(sequential.getChild().getUsername(), parallel.getChild().getUsername());
+      assertEquals(sequential.getChild().getPassword(), parallel.getChild().getPassword());
+      assertEquals(sequential.getCheck(), parallel.getCheck());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testTreeGatheringMatchesSequential() throws Exception {
+    DummyParameters sequential = factory().create().gatherParameters();
+    DummyParameters tree = factory().withTreeGathering(true).create().gatherParameters();
+
+    assertEquals(sequential.getValue(), tree.getValue());
+    assertEquals(sequential.getList(), tree.getList());
+    assertEquals(sequential.getLocalDateTime(), tree.getLocalDateTime());
+    assertEquals(sequential.getChild().getUsername(), tree.getChild().getUsername());
+    assertEquals(sequential.getChild().getPassword(), tree.getChild().getPassword());
+    assertEquals(sequential.getCheck(), tree.getCheck());
+  }
+
+  private static class CountingGatherer implements OverlayGatherer<DummyParameters>, ChangeAware {
+
+    private final AtomicInteger fingerprint = new AtomicInteger();
+    private final AtomicInteger count = new AtomicInteger();
+    private final Path watched;
+
+    CountingGatherer() {
+      this(null);
+    }
+
+    CountingGatherer(Path watched) {
+      this.watched = watched;
+    }
+
+    @Override
+    public Object getFingerprint() {
+      return fingerprint.get();
+    }
+
+    @Override
+    public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+      if (watched != null) {
+        spi.watch(watched);
+      }
+      count.incrementAndGet();
+      ObjectNode overlay = spi.getJsonMapper().createObjectNode();
+      overlay.put("value", 100 + fingerprint.get());
+      return overlay;
+    }
+
+    @Override
+    public DummyParameters gatherParameters(Params4JSpi spi, DummyParameters base) throws IOException {
+      return spi.getJsonMapper().readerForUpdating(base).readValue(gatherOverlay(spi));
+    }
+  }
+
+  @Test
+  public void testUnchangedFingerprintReusesOverlay() throws Exception {
+    CountingGatherer gatherer = new CountingGatherer();
+    Params4J<DummyParameters> p4j = factory().withGatherer(gatherer).withTreeGathering(true).create();
+
+    assertEquals(100, p4j.gatherParameters().getValue());
+    assertEquals(100, p4j.gatherParameters().getValue());
+    assertEquals(1, gatherer.count.get());
+
+    gatherer.fingerprint.set(1);
+    assertEquals(101, p4j.gatherParameters().getValue());
+    assertEquals(2, gatherer.count.get());
+  }
+
+  @Test
+  public void testFingerprintIgnoredWithoutTreeGathering() throws Exception {
+    CountingGatherer gatherer = new CountingGatherer();
+    Params4J<DummyParameters> p4j = factory().withGatherer(gatherer).create();
+
+    assertEquals(100, p4j.gatherParameters().getValue());
+    assertEquals(100, p4j.gatherParameters().getValue());
+    assertEquals(2, gatherer.count.get());
+  }
+
+  @Test
+  public void testChangesRoutedToWatchingGatherer() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path dirA = Files.createTempDirectory(tempRoot.toPath(), "Params4JImplTestA");
+    Path dirB = Files.createTempDirectory(tempRoot.toPath(), "Params4JImplTestB");
+    CountingGatherer gathererA = new CountingGatherer(dirA);
+    CountingGatherer gathererB = new CountingGatherer(dirB);
+    Params4JImpl<DummyParameters> p4j = (Params4JImpl<DummyParameters>) factory()
+            .withGatherer(gathererA)
+            .withGatherer(gathererB)
+            .withTreeGathering(true)
+            .create();
+
+    p4j.gatherParameters();
+    assertEquals(1, gathererA.count.get());
+    assertEquals(1, gathererB.count.get());
+
+    // Both fingerprints have moved, but only A owns the changed path so the value from B is unchanged
+    gathererA.fingerprint.set(1);
+    gathererB.fingerprint.set(1);
+    assertEquals(100, p4j.gatherParameters(Collections.singleton(dirA.resolve("file"))).getValue());
+    assertEquals(2, gathererA.count.get());
+    assertEquals(1, gathererB.count.get());
+
+    // A full gather still checks everything
+    assertEquals(101, p4j.gatherParameters().getValue());
+    assertEquals(2, gathererA.count.get());
+    assertEquals(2, gathererB.count.get());
+  }
+
+  @Test
+  public void testCurrentSnapshot() throws Exception {
+    CountingGatherer gatherer = new CountingGatherer();
+    Params4J<DummyParameters> p4j = factory().withGatherer(gatherer).withTreeGathering(true).create();
+    assertNull(p4j.current());
+    assertEquals(0, p4j.version());
+    assertNull(p4j.lastUpdated());
+
+    DummyParameters first = p4j.gatherParameters();
+    assertSame(first, p4j.current());
+    assertEquals(1, p4j.version());
+    Instant updated = p4j.lastUpdated();
+    assertNotNull(updated);
+
+    // Same content, so the snapshot is retained
+    assertNotSame(first, p4j.gatherParameters());
+    assertSame(first, p4j.current());
+    assertEquals(1, p4j.version());
+    assertEquals(updated, p4j.lastUpdated());
+
+    gatherer.fingerprint.set(1);
+    DummyParameters second = p4j.gatherParameters();
+    assertSame(second, p4j.current());
+    assertEquals(101, p4j.current().getValue());
+    assertEquals(2, p4j.version());
+  }
+
+  @Test
+  public void testFingerprintOnly() throws Exception {
+    CountingGatherer gatherer = new CountingGatherer();
+    Params4J<DummyParameters> p4j = factory().withGatherer(gatherer).withFingerprintOnly(true).create();
+
+    DummyParameters first = p4j.gatherParameters();
+    p4j.gatherParameters();
+    assertSame(first, p4j.current());
+    assertEquals(1, p4j.version());
+
+    gatherer.fingerprint.set(1);
+    p4j.gatherParameters();
+    assertEquals(101, p4j.current().getValue());
+    assertEquals(2, p4j.version());
+  }
+
+  @Test
+  public void testSnapshotRepresentsSources() throws Exception {
+    // Two overlays that differ in spelling and type, but bind to the same parameters.
+    // When every gatherer produces an overlay the fingerprint is of the merged overlays, so a change to a source is a new version.
+    AtomicBoolean upper = new AtomicBoolean(true);
+    OverlayGatherer<DummyParameters> gatherer = new OverlayGatherer<DummyParameters>() {
+      @Override
+      public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+        ObjectNode overlay = spi.getJsonMapper().createObjectNode();
+        if (upper.get()) {
+          overlay.put("VALUE", "31");
+        } else {
+          overlay.put("value", 31);
+        }
+        return overlay;
+      }
+
+      @Override
+      public DummyParameters gatherParameters(Params4JSpi spi, DummyParameters base) throws IOException {
+        return spi.getJsonMapper().readerForUpdating(base).readValue(gatherOverlay(spi));
+      }
+    };
+    Params4J<DummyParameters> p4j = Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .withGatherer(gatherer)
+            .withTreeGathering(true)
+            .create();
+
+    assertEquals(31, p4j.gatherParameters().getValue());
+    assertEquals(1, p4j.version());
+    assertEquals(31, p4j.gatherParameters().getValue());
+    assertEquals(1, p4j.version());
+    upper.set(false);
+    assertEquals(31, p4j.gatherParameters().getValue());
+    assertEquals(2, p4j.version());
+  }
+
+  /**
+   * A json mapper that counts the number of times parameters are converted to a tree.
+   */
+  private static class ConvertCountingMapper extends ObjectMapper {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicInteger conversions;
+
+    ConvertCountingMapper(AtomicInteger conversions) {
+      this.conversions = conversions;
+    }
+
+    ConvertCountingMapper(ConvertCountingMapper src) {
+      super(src);
+      this.conversions = src.conversions;
+    }
+
+    @Override
+    public ObjectMapper copy() {
+      return new ConvertCountingMapper(this);
+    }
+
+    @Override
+    public <T> T convertValue(Object fromValue, Class<T> toValueType) throws IllegalArgumentException {
+      if (fromValue instanceof DummyParameters) {
+        conversions.incrementAndGet();
+      }
+      return super.convertValue(fromValue, toValueType);
+    }
+  }
+
+  @Test
+  public void testTreeOnlyBuiltForListeners() throws Exception {
+    AtomicInteger conversions = new AtomicInteger();
+    AtomicInteger value = new AtomicInteger(1);
+    OverlayGatherer<DummyParameters> gatherer = new OverlayGatherer<DummyParameters>() {
+      @Override
+      public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+        return spi.getJsonMapper().createObjectNode().put("value", value.get());
+      }
+
+      @Override
+      public DummyParameters gatherParameters(Params4JSpi spi, DummyParameters base) throws IOException {
+        return spi.getJsonMapper().readerForUpdating(base).readValue(gatherOverlay(spi));
+      }
+    };
+    Params4J<DummyParameters> p4j = Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .withJsonMapper(new ConvertCountingMapper(conversions))
+            .withGatherer(gatherer)
+            .withTreeGathering(true)
+            .create();
+
+    assertEquals(1, p4j.gatherParameters().getValue());
+    value.set(2);
+    assertEquals(2, p4j.gatherParameters().getValue());
+    assertEquals(2, p4j.version());
+    assertEquals(0, conversions.get());
+
+    try {
+      p4j.notifyOfConfigChanges(change -> {});
+      value.set(3);
+      assertEquals(3, p4j.gatherParameters().getValue());
+      assertEquals(3, p4j.version());
+      assertEquals(1, conversions.get());
+    } finally {
+      p4j.close();
+    }
+  }
+
+  private static OverlayGatherer<DummyParameters> fixedGatherer(String json) {
+    return new OverlayGatherer<DummyParameters>() {
+      @Override
+      public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+        return (ObjectNode) spi.getJsonMapper().readTree(json);
+      }
+
+      @Override
+      public DummyParameters gatherParameters(Params4JSpi spi, DummyParameters base) throws IOException {
+        return spi.getJsonMapper().readerForUpdating(base).readValue(gatherOverlay(spi));
+      }
+    };
+  }
+
+  @Test
+  public void testBindFailureDoesNotRerunGatherers() throws Exception {
+    DeserializationProblemHandler strict = new DeserializationProblemHandler() {
+      @Override
+      public Object handleWeirdStringValue(DeserializationContext ctxt, Class<?> targetType, String valueToConvert, String failureMsg) throws IOException {
+        throw new IOException("Unable to convert " + valueToConvert);
+      }
+    };
+    AtomicInteger count = new AtomicInteger();
+    Params4J<DummyParameters> p4j = Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .withProblemHandler(strict)
+            .withGatherer(fixedGatherer("{\"value\":5,\"list\":[\"first\"]}"))
+            .withGatherer((spi, base) -> {
+              count.incrementAndGet();
+              return base;
+            })
+            .withGatherer(fixedGatherer("{\"check\":\"perhaps\"}"))
+            .withGatherer(fixedGatherer("{\"list\":[\"second\"]}"))
+            .withTreeGathering(true)
+            .create();
+
+    DummyParameters dp = p4j.gatherParameters();
+    assertEquals(1, count.get());
+    assertEquals(5, dp.getValue());
+    assertEquals(Arrays.asList("first", "second"), dp.getList());
+    assertNull(dp.getCheck());
+  }
+
+  @Test
+  public void testBindFailureOnlyDropsFailingSource() throws Exception {
+    DeserializationProblemHandler strict = new DeserializationProblemHandler() {
+      @Override
+      public Object handleWeirdStringValue(DeserializationContext ctxt, Class<?> targetType, String valueToConvert, String failureMsg) throws IOException {
+        throw new IOException("Unable to convert " + valueToConvert);
+      }
+    };
+    Params4J<DummyParameters> p4j = Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .withProblemHandler(strict)
+            .withGatherer(fixedGatherer("{\"check\":\"maybe\"}"))
+            .withGatherer(fixedGatherer("{\"value\":5,\"list\":[\"first\"]}"))
+            .withGatherer(fixedGatherer("{\"list\":[\"second\"]}"))
+            .withTreeGathering(true)
+            .withReloadPolicy(ReloadPolicy.builder().keepLastGood(true).build())
+            .create();
+
+    DummyParameters dp = p4j.gatherParameters();
+    assertEquals(5, dp.getValue());
+    assertEquals(Arrays.asList("first", "second"), dp.getList());
+    assertNull(dp.getCheck());
+    // The failure is still reported, so the first parameters are kept
+    p4j.gatherParameters();
+    assertTrue(p4j.getReloadStatus().isPinned());
+    assertSame(dp, p4j.current());
+  }
+
+  private static void awaitWaiting(Thread... threads) throws InterruptedException {
+    long start = System.currentTimeMillis();
+    for (Thread thread : threads) {
+      while (thread.getState() != Thread.State.WAITING) {
+        if (System.currentTimeMillis() > start + 10000) {
+          throw new IllegalStateException("Thread did not block: " + thread);
+        }
+        Thread.sleep(10);
+      }
+    }
+  }
+
+  @Test
+  public void testKeepLastGood() throws Exception {
+    AtomicInteger value = new AtomicInteger(1);
+    AtomicBoolean broken = new AtomicBoolean();
+    OverlayGatherer<DummyParameters> gatherer = new OverlayGatherer<DummyParameters>() {
+      @Override
+      public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+        if (broken.get()) {
+          spi.reportError("Broken", null);
+        }
+        ObjectNode overlay = spi.getJsonMapper().createObjectNode();
+        overlay.put("value", value.get());
+        return overlay;
+      }
+
+      @Override
+      public DummyParameters gatherParameters(Params4JSpi spi, DummyParameters base) throws IOException {
+        return spi.getJsonMapper().readerForUpdating(base).readValue(gatherOverlay(spi));
+      }
+    };
+    Params4J<DummyParameters> p4j = factory()
+            .withGatherer(gatherer)
+            .withTreeGathering(true)
+            .withReloadPolicy(ReloadPolicy.builder().keepLastGood(true).build())
+            .create();
+
+    assertEquals(1, p4j.gatherParameters().getValue());
+    assertEquals(1, p4j.version());
+    assertFalse(p4j.getReloadStatus().isPinned());
+    
+    // A gather that reports errors does not replace the current parameters
+    broken.set(true);
+    value.set(2);
+    assertEquals(1, p4j.gatherParameters().getValue());
+    assertEquals(1, p4j.current().getValue());
+    assertEquals(1, p4j.version());
+    assertTrue(p4j.getReloadStatus().isPinned());
+    
+    broken.set(false);
+    assertEquals(2, p4j.gatherParameters().getValue());
+    assertEquals(2, p4j.version());
+    assertFalse(p4j.getReloadStatus().isPinned());
+  }
+
+  /**
+   * Gatherer that watches a directory and sets a single property, unless it is broken, in which case it reports an error and sets nothing.
+   */
+  private static class FlakyGatherer implements OverlayGatherer<DummyParameters>, ChangeAware {
+
+    private final Path watched;
+    private final String property;
+    private final AtomicInteger value = new AtomicInteger();
+    private final AtomicBoolean broken = new AtomicBoolean();
+    private final AtomicInteger count = new AtomicInteger();
+
+    FlakyGatherer(Path watched, String property) {
+      this.watched = watched;
+      this.property = property;
+    }
+
+    @Override
+    public Object getFingerprint() {
+      return Arrays.asList(value.get(), broken.get());
+    }
+
+    @Override
+    public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+      spi.watch(watched);
+      count.incrementAndGet();
+      ObjectNode overlay = spi.getJsonMapper().createObjectNode();
+      if (broken.get()) {
+        spi.reportError("Broken", null);
+      } else {
+        overlay.put(property, value.get());
+      }
+      return overlay;
+    }
+
+    @Override
+    public DummyParameters gatherParameters(Params4JSpi spi, DummyParameters base) throws IOException {
+      return spi.getJsonMapper().readerForUpdating(base).readValue(gatherOverlay(spi));
+    }
+  }
+
+  @Test
+  public void testKeepLastGoodWhenOtherGathererChanges() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path dirA = Files.createTempDirectory(tempRoot.toPath(), "Params4JImplTestA");
+    Path dirB = Files.createTempDirectory(tempRoot.toPath(), "Params4JImplTestB");
+    FlakyGatherer gathererA = new FlakyGatherer(dirA, "check");
+    FlakyGatherer gathererB = new FlakyGatherer(dirB, "value");
+    gathererA.value.set(1);
+    gathererB.value.set(10);
+    try (Params4JImpl<DummyParameters> p4j = (Params4JImpl<DummyParameters>) Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .withGatherer(gathererA)
+            .withGatherer(gathererB)
+            .withTreeGathering(true)
+            .withReloadPolicy(ReloadPolicy.builder().keepLastGood(true).build())
+            .create()) {
+
+      p4j.gatherParameters();
+      assertEquals(Boolean.TRUE, p4j.current().getCheck());
+      assertEquals(10, p4j.current().getValue());
+      assertEquals(1, p4j.version());
+
+      gathererA.broken.set(true);
+      p4j.gatherParameters(Collections.singleton(dirA.resolve("file")));
+      assertTrue(p4j.getReloadStatus().isPinned());
+      assertEquals(1, p4j.version());
+
+      // A change that only affects B must not reuse the overlay that A produced when it failed
+      gathererB.value.set(11);
+      p4j.gatherParameters(Collections.singleton(dirB.resolve("file")));
+      assertEquals(3, gathererA.count.get());
+      assertTrue(p4j.getReloadStatus().isPinned());
+      assertEquals(1, p4j.version());
+      assertEquals(Boolean.TRUE, p4j.current().getCheck());
+      assertEquals(10, p4j.current().getValue());
+
+      gathererA.broken.set(false);
+      p4j.gatherParameters(Collections.singleton(dirA.resolve("file")));
+      assertFalse(p4j.getReloadStatus().isPinned());
+      assertEquals(2, p4j.version());
+      assertEquals(Boolean.TRUE, p4j.current().getCheck());
+      assertEquals(11, p4j.current().getValue());
+    }
+  }
+
+  @Test
+  public void testFullGatherWidensPendingFlight() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path dir = Files.createTempDirectory(tempRoot.toPath(), "Params4JImplTest");
+    FlakyGatherer watched = new FlakyGatherer(dir, "value");
+    watched.value.set(1);
+    AtomicInteger count = new AtomicInteger();
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    OverlayGatherer<DummyParameters> blocking = new OverlayGatherer<DummyParameters>() {
+      @Override
+      public ObjectNode gatherOverlay(Params4JSpi spi) throws IOException {
+        if (count.incrementAndGet() == 2) {
+          entered.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException ex) {
+            throw new IOException(ex);
+          }
+        }
+        return spi.getJsonMapper().createObjectNode();
+      }
+
+      @Override
+      public DummyParameters gatherParameters(Params4JSpi spi, DummyParameters base) throws IOException {
+        return base;
+      }
+    };
+    Params4JImpl<DummyParameters> p4j = (Params4JImpl<DummyParameters>) Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .withGatherer(watched)
+            .withGatherer(blocking)
+            .withTreeGathering(true)
+            .create();
+    assertEquals(1, p4j.gatherParameters().getValue());
+    assertEquals(1, watched.count.get());
+    
+    // The watched source changes, but its change has not been reported yet
+    watched.value.set(2);
+    AtomicReference<DummyParameters> changed = new AtomicReference<>();
+    AtomicReference<DummyParameters> full = new AtomicReference<>();
+    Thread running = new Thread(() -> p4j.gatherParameters(Collections.singleton(Path.of("a"))));
+    running.start();
+    entered.await();
+    
+    Thread change = new Thread(() -> changed.set(p4j.gatherParameters(Collections.singleton(Path.of("b")))));
+    change.start();
+    awaitWaiting(change);
+    Thread plain = new Thread(() -> full.set(p4j.gatherParameters()));
+    plain.start();
+    awaitWaiting(plain);
+    
+    release.countDown();
+    for (Thread thread : Arrays.asList(running, change, plain)) {
+      thread.join();
+    }
+    
+    // The follow-up gather was widened to run every gatherer, so the caller that did not report a change sees the current value
+    assertEquals(2, watched.count.get());
+    assertEquals(2, full.get().getValue());
+    assertSame(changed.get(), full.get());
+  }
+
+  @Test
+  public void testConcurrentGathersAreShared() throws Exception {
+    AtomicInteger count = new AtomicInteger();
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Params4JImpl<DummyParameters> p4j = (Params4JImpl<DummyParameters>) Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .withGatherer((spi, base) -> {
+              if (count.incrementAndGet() == 1) {
+                entered.countDown();
+                try {
+                  release.await();
+                } catch (InterruptedException ex) {
+                  throw new IOException(ex);
+                }
+              }
+              return base;
+            })
+            .create();
+
+    AtomicReference<DummyParameters> first = new AtomicReference<>();
+    AtomicReference<DummyParameters> shared = new AtomicReference<>();
+    AtomicReference<DummyParameters> changed1 = new AtomicReference<>();
+    AtomicReference<DummyParameters> changed2 = new AtomicReference<>();
+    Thread running = new Thread(() -> first.set(p4j.gatherParameters()));
+    running.start();
+    entered.await();
+
+    Thread sharing = new Thread(() -> shared.set(p4j.gatherParameters()));
+    Thread change1 = new Thread(() -> changed1.set(p4j.gatherParameters(Collections.singleton(Path.of("a")))));
+    Thread change2 = new Thread(() -> changed2.set(p4j.gatherParameters(Collections.singleton(Path.of("b")))));
+    sharing.start();
+    awaitWaiting(sharing);
+    change1.start();
+    change2.start();
+    awaitWaiting(change1, change2);
+
+    release.countDown();
+    for (Thread thread : Arrays.asList(running, sharing, change1, change2)) {
+      thread.join();
+    }
+
+    // One gather shared by the first two callers, one follow-up shared by the two callers that reported changes
+    assertEquals(2, count.get());
+    assertSame(first.get(), shared.get());
+    assertSame(changed1.get(), changed2.get());
+    assertNotSame(first.get(), changed1.get());
+  }
+
+}
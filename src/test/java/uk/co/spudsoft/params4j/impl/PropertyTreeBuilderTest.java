@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.dataformat.javaprop.JavaPropsMapper;
+import com.fasterxml.jackson.dataformat.javaprop.JavaPropsSchema;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class PropertyTreeBuilderTest {
+
+  private static JsonNode build(String... props) {
+    PropertyTreeBuilder builder = new PropertyTreeBuilder();
+    for (int i = 0; i < props.length; i += 2) {
+      builder.add(props[i], props[i + 1]);
+    }
+    return builder.build(JsonNodeFactory.instance);
+  }
+
+  private static JsonNode parse(String... props) throws Exception {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < props.length; i += 2) {
+      text.append(props[i]).append(" = ").append(props[i + 1]).append("\r\n");
+    }
+    return new JavaPropsMapper()
+            .reader(new JavaPropsSchema().withPathSeparatorEscapeChar('\\'))
+            .readTree(text.toString());
+  }
+
+  @Test
+  public void testMatchesPropsMapper() throws Exception {
+    String[][] cases = {
+      {"a", "1"},
+      {"a.b", "1", "a.c", "2"},
+      {"a[1]", "x", "a[2]", "y"},
+      {"a[0]", "x", "a[5]", "y"},
+      {"a.1", "x", "a.2", "y"},
+      {"a.b[2].c", "1", "a.b[1].c", "2"},
+      {"a[1].b", "x", "a[1].c", "y"},
+      {"a[1]b", "2"},
+      {"a.b", "y", "a[1]", "x"},
+      {"a", "v", "a.b", "w"},
+      {"a", "v", "a[1]", "x"},
+      {"a..b", "1"},
+      {".a", "1"},
+      {"a.", "1"},
+      {"a[x]", "1"},
+      {"a[]", "1"},
+      {"a[99999999999]", "1"},
+      {"a.01", "x", "a.1", "y"},
+      {"1", "x", "b", "y"},
+    };
+    // Objects are compared without regard to the order of their fields
+    for (String[] props : cases) {
+      assertEquals(parse(props), build(props), Arrays.toString(props));
+    }
+  }
+
+  @Test
+  public void testEscapedSeparator() {
+    // The properties file parser consumes the escape character, so the props mapper never sees it
+    assertEquals("{\"a.b\":{\"c\":\"1\"}}", build("a\\.b.c", "1").toString());
+    assertEquals("{\"a\\\\b\":\"1\"}", build("a\\\\b", "1").toString());
+    assertEquals("{\"a\\\\b\":\"1\"}", build("a\\b", "1").toString());
+  }
+
+  @Test
+  public void testValuesAreVerbatim() {
+    assertEquals("{\"a\":\" x = y \\\\n\\n\"}", build("a", " x = y \\n\n").toString());
+  }
+
+  @Test
+  public void testLastValueWins() {
+    assertEquals("{\"a\":{\"b\":\"2\"}}", build("a.b", "1", "a.b", "2").toString());
+  }
+
+  @Test
+  public void testEmpty() {
+    PropertyTreeBuilder builder = new PropertyTreeBuilder();
+    assertTrue(builder.isEmpty());
+    builder.add("...", "ignored");
+    assertTrue(builder.isEmpty());
+    assertEquals("{}", builder.build(JsonNodeFactory.instance).toString());
+  }
+
+}
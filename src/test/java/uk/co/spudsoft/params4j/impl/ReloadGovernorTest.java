@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import uk.co.spudsoft.params4j.ReloadPolicy;
+import uk.co.spudsoft.params4j.ReloadStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class ReloadGovernorTest {
+  
+  private static final long MS = 1000000L;
+  
+  @Test
+  public void testMinIntervalAndBackoff() {
+    ReloadGovernor governor = new ReloadGovernor(ReloadPolicy.builder()
+            .minInterval(Duration.ofMillis(100))
+            .initialBackoff(Duration.ofMillis(200))
+            .maxBackoff(Duration.ofMillis(500))
+            .build());
+    assertEquals(0, governor.delay(1000 * MS));
+    
+    governor.started(1000 * MS);
+    governor.completed(0);
+    assertEquals(100 * MS, governor.delay(1000 * MS));
+    assertEquals(40 * MS, governor.delay(1060 * MS));
+    assertEquals(0, governor.delay(1100 * MS));
+    
+    // Failures back off exponentially, up to the maximum
+    governor.started(2000 * MS);
+    governor.completed(3);
+    assertEquals(200 * MS, governor.delay(2000 * MS));
+    governor.started(3000 * MS);
+    governor.completed(1);
+    assertEquals(400 * MS, governor.delay(3000 * MS));
+    governor.started(4000 * MS);
+    governor.completed(1);
+    assertEquals(500 * MS, governor.delay(4000 * MS));
+    governor.deferred();
+    
+    ReloadStatus status = governor.status(4100 * MS, false);
+    assertEquals(4, status.getReloads());
+    assertEquals(1, status.getDeferredReloads());
+    assertEquals(3, status.getConsecutiveFailures());
+    assertEquals(1, status.getLastErrorCount());
+    assertEquals(Duration.ofMillis(400), status.getNextReloadDelay());
+    
+    // A clean reload resets the backoff
+    governor.started(5000 * MS);
+    governor.completed(0);
+    assertEquals(100 * MS, governor.delay(5000 * MS));
+  }
+  
+  @Test
+  public void testValidation() {
+    assertThrows(IllegalArgumentException.class, () -> ReloadPolicy.builder().minInterval(Duration.ofSeconds(-1)).build());
+    assertThrows(IllegalArgumentException.class, () -> ReloadPolicy.builder().initialBackoff(Duration.ofSeconds(2)).maxBackoff(Duration.ofSeconds(1)).build());
+  }
+  
+}
@@ -4,12 +4,20 @@
  */
 package uk.co.spudsoft.params4j.impl;
 
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import org.junit.jupiter.api.Test;
 import uk.co.spudsoft.params4j.FileType;
 import uk.co.spudsoft.params4j.Params4J;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  *
@@ -48,4 +56,105 @@ public class ResourceGathererTest {
     assertEquals("2022-01-10T17:11", dp.getLocalDateTime().toString());
   }
 
+  private static Path createTempDir(String name) throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    return Files.createTempDirectory(tempRoot.toPath(), name);
+  }
+  
+  @Test
+  public void testParsedOnce() throws Exception {
+    Path dir = createTempDir("ResourceGathererTest");
+    Files.writeString(dir.resolve("cached.yaml"), "value: 1");
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, null)) {
+      ResourceGatherer<DummyParameters> gatherer = new ResourceGatherer<>(loader, "/cached.yaml", FileType.Yaml, false, true);
+      Params4J<DummyParameters> p4j = new Params4JFactoryImpl<DummyParameters>()
+              .withConstructor(() -> new DummyParameters())
+              .withGatherer(gatherer)
+              .create();
+      assertEquals(1, p4j.gatherParameters().getValue());
+      
+      Files.writeString(dir.resolve("cached.yaml"), "value: 2");
+      assertEquals(1, p4j.gatherParameters().getValue());
+      
+      // Shared gatherers use the same tree
+      Params4J<DummyParameters> sharedP4j = new Params4JFactoryImpl<DummyParameters>()
+              .withConstructor(() -> new DummyParameters())
+              .withResourceGatherer(loader, "cached.yaml", FileType.Yaml, false, true)
+              .create();
+      assertEquals(1, sharedP4j.gatherParameters().getValue());
+      
+      // Unshared gatherers parse the resource themselves
+      Params4J<DummyParameters> unsharedP4j = new Params4JFactoryImpl<DummyParameters>()
+              .withConstructor(() -> new DummyParameters())
+              .withResourceGatherer(loader, "cached.yaml", FileType.Yaml, false, false)
+              .create();
+      assertEquals(2, unsharedP4j.gatherParameters().getValue());
+    }
+  }
+
+  @Test
+  public void testFailedLoadIsNotCached() throws Exception {
+    Path dir = createTempDir("ResourceGathererTest");
+    Files.writeString(dir.resolve("broken.yaml"), "value: [");
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, null)) {
+      Params4J<DummyParameters> p4j = new Params4JFactoryImpl<DummyParameters>()
+              .withConstructor(() -> new DummyParameters())
+              .withResourceGatherer(loader, "broken.yaml", FileType.Yaml, false, true)
+              .withTreeGathering(true)
+              .create();
+      assertEquals(0, p4j.gatherParameters().getValue());
+      
+      Files.writeString(dir.resolve("broken.yaml"), "value: 3");
+      
+      // Another shared instance does not see the failed load
+      Params4J<DummyParameters> sharedP4j = new Params4JFactoryImpl<DummyParameters>()
+              .withConstructor(() -> new DummyParameters())
+              .withResourceGatherer(loader, "broken.yaml", FileType.Yaml, false, true)
+              .create();
+      assertEquals(3, sharedP4j.gatherParameters().getValue());
+      
+      // And the instance that failed loads the resource again
+      assertEquals(3, p4j.gatherParameters().getValue());
+    }
+  }
+
+  @Test
+  public void testAllCopies() throws Exception {
+    Path first = createTempDir("ResourceGathererTest");
+    Path second = createTempDir("ResourceGathererTest");
+    Files.writeString(first.resolve("plugin.yaml"), "value: 1\nlist:\n  - first\n");
+    Files.writeString(second.resolve("plugin.yaml"), "value: 2\ncheck: true\nlist:\n  - second\n");
+    try (URLClassLoader loader = new URLClassLoader(new URL[] {first.toUri().toURL(), second.toUri().toURL()}, null)) {
+      Params4J<DummyParameters> p4j = new Params4JFactoryImpl<DummyParameters>()
+              .withConstructor(() -> new DummyParameters())
+              .withResourceGatherer(loader, "plugin.yaml", FileType.Yaml, true, false)
+              .withTreeGathering(true)
+              .create();
+      DummyParameters dp = p4j.gatherParameters();
+      assertEquals(1, dp.getValue());
+      assertTrue(dp.getCheck());
+      assertEquals(Arrays.asList("second", "first"), dp.getList());
+      
+      p4j = new Params4JFactoryImpl<DummyParameters>()
+              .withConstructor(() -> new DummyParameters())
+              .withResourceGatherer(loader, "plugin.yaml", FileType.Yaml, false, false)
+              .create();
+      dp = p4j.gatherParameters();
+      assertEquals(1, dp.getValue());
+      assertNull(dp.getCheck());
+      assertEquals(Arrays.asList("first"), dp.getList());
+    }
+  }
+  
+  @Test
+  public void testMissingResource() throws Exception {
+    Params4J<DummyParameters> p4j = new Params4JFactoryImpl<DummyParameters>()
+            .withConstructor(() -> new DummyParameters())
+            .withResourceGatherer(null, "missing.yaml", FileType.Yaml, true, true)
+            .create();
+    assertEquals(0, p4j.gatherParameters().getValue());
+    assertEquals(0, p4j.getReloadStatus().getLastErrorCount());
+  }
+
 }
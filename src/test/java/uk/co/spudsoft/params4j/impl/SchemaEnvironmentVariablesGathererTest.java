@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import uk.co.spudsoft.params4j.ConfigurationProperty;
+import uk.co.spudsoft.params4j.Params4J;
+import uk.co.spudsoft.params4j.Params4JSpi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class SchemaEnvironmentVariablesGathererTest {
+
+  @Test
+  public void testGatherParameters() throws Exception {
+    Params4JSpi p4j = (Params4JSpi) Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .create();
+
+    Map<String, String> env = new HashMap<>();
+    env.put("PREFIX_VALUE", "17");
+    env.put("PREFIX_LOCALDATETIME", "2026-10-18T12:34:56");
+    env.put("PREFIX_LIST_1", "second");
+    env.put("PREFIX_LIST_0", "first");
+    env.put("prefix_child_username", "user");
+    env.put("PREFIX_CHILD_PASSWORD", "line one\nline=two");
+    env.put("PREFIX_WRONG", "wrong");
+    env.put("PREFIX_LIST_X", "wrong");
+    env.put("OTHER_VALUE", "ignored");
+    SchemaEnvironmentVariablesGatherer<DummyParameters> gatherer = new SchemaEnvironmentVariablesGatherer<>(env, "prefix", null, null);
+    DummyParameters dp = gatherer.gatherParameters(p4j, new DummyParameters());
+    assertEquals(17, dp.getValue());
+    assertEquals(LocalDateTime.of(2026, 10, 18, 12, 34, 56), dp.getLocalDateTime());
+    assertEquals(Arrays.asList("first", "second"), dp.getList());
+    assertEquals("user", dp.getChild().getUsername());
+    assertEquals("line one\nline=two", dp.getChild().getPassword());
+    assertEquals(Arrays.asList("LIST_X", "WRONG"), gatherer.getUnknownVariables());
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    Params4JSpi p4j = (Params4JSpi) Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .create();
+
+    SchemaEnvironmentVariablesGatherer<DummyParameters> gatherer = new SchemaEnvironmentVariablesGatherer<>(new HashMap<>(), "prefix", null, null);
+    assertNull(gatherer.getUnknownVariables());
+    DummyParameters dp = gatherer.gatherParameters(p4j, new DummyParameters());
+    assertEquals(0, dp.getValue());
+    assertNull(dp.getList());
+    assertEquals(List.of(), gatherer.getUnknownVariables());
+  }
+
+  @Test
+  public void testSchema() {
+    EnvironmentVariableSchema schema = EnvironmentVariableSchema.of(Arrays.asList(
+            ConfigurationProperty.builder().name("camelCase").type(String.class).build()
+            , ConfigurationProperty.builder().name("snake_case").type(String.class).build()
+            , ConfigurationProperty.builder().name("items.[<n>].name").type(String.class).build()
+            , ConfigurationProperty.builder().name("lookup.<xxx>.value").type(String.class).build()
+            , ConfigurationProperty.builder().name("vertx").type(Object.class).undocumented(true).build()
+    ));
+    assertEquals(5, schema.size());
+    assertEquals("camelCase", schema.resolve("CAMELCASE"));
+    assertEquals("snake_case", schema.resolve("snake_case"));
+    assertEquals("items[12].name", schema.resolve("ITEMS_012_NAME"));
+    assertEquals("lookup.Key\\.One.value", schema.resolve("LOOKUP_Key.One_VALUE"));
+    assertEquals("vertx.eventLoopPoolSize", schema.resolve("VERTX_eventLoopPoolSize"));
+    assertEquals("vertx.file.system", schema.resolve("VERTX_file_system"));
+    assertNull(schema.resolve("ITEMS_X_NAME"));
+    assertNull(schema.resolve("CAMEL_CASE"));
+  }
+
+}
@@ -5,6 +5,8 @@
 package uk.co.spudsoft.params4j.impl;
 
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.POJONode;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -13,19 +15,29 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
+import uk.co.spudsoft.params4j.DebouncePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.co.spudsoft.params4j.Params4J;
 import uk.co.spudsoft.params4j.Params4JSpi;
+import uk.co.spudsoft.params4j.SecretHandle;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -51,6 +63,106 @@ public class SecretsGathererTest {
     assertNull(dp.getChild());
   }
 
+  @Test
+  public void testConcurrentReads() throws Exception {
+    Path root = new File(Helpers.getResourcePath("/secrets")).toPath();
+    Params4J<DummyParameters> p4j = new Params4JFactoryImpl<DummyParameters>()
+            .withConstructor(() -> new DummyParameters())
+            .withSecretsGatherer(root, 100, 100, 4, StandardCharsets.UTF_8, 4)
+            .withTreeGathering(true)
+            .create();
+    DummyParameters dp = p4j.gatherParameters();
+    assertEquals("user", dp.getChild().getUsername());
+    assertEquals("pass", dp.getChild().getPassword());
+    
+    SecretsGatherer<DummyParameters> sequential = new SecretsGatherer<>(root, 100, 100, 4, StandardCharsets.UTF_8);
+    SecretsGatherer<DummyParameters> concurrent = new SecretsGatherer<>(root, 100, 100, 4, StandardCharsets.UTF_8, 4);
+    assertEquals(sequential.gatherOverlay((Params4JSpi) p4j).toString(), concurrent.gatherOverlay((Params4JSpi) p4j).toString());
+  }
+
+  @Test
+  public void testReadExecutor() throws Exception {
+    Path root = new File(Helpers.getResourcePath("/secrets")).toPath();
+    AtomicInteger reads = new AtomicInteger();
+    Executor executor = runnable -> {
+      reads.incrementAndGet();
+      new Thread(runnable).start();
+    };
+    Params4J<DummyParameters> p4j = new Params4JFactoryImpl<DummyParameters>()
+            .withConstructor(() -> new DummyParameters())
+            .withSecretsGatherer(root, 100, 100, 4, StandardCharsets.UTF_8, 4, executor)
+            .create();
+    DummyParameters dp = p4j.gatherParameters();
+    assertEquals("user", dp.getChild().getUsername());
+    assertEquals("pass", dp.getChild().getPassword());
+    assertTrue(reads.get() > 0);
+  }
+
+  @Test
+  public void testLazySecrets() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path secretsDir = Files.createTempDirectory(tempRoot.toPath(), "SecretsGathererTest");
+    Files.createDirectories(secretsDir.resolve("child"));
+    Files.writeString(secretsDir.resolve("child").resolve("username"), "user");
+    Files.writeString(secretsDir.resolve("child").resolve("password"), "pass");
+    Files.writeString(secretsDir.resolve("keystore"), "keystore contents");
+    
+    for (boolean treeGathering : new boolean[] {false, true}) {
+      Params4J<DummySecretParameters> p4j = new Params4JFactoryImpl<DummySecretParameters>()
+              .withConstructor(() -> new DummySecretParameters())
+              .withLazySecretsGatherer(secretsDir, 100, 100, 4, StandardCharsets.UTF_8)
+              .withTreeGathering(treeGathering)
+              .create();
+      DummySecretParameters dp = p4j.gatherParameters();
+      assertEquals("user", dp.getChild().getUsername());
+      assertEquals("pass", dp.getChild().getPassword());
+
+      SecretHandle keystore = dp.getKeystore();
+      assertEquals(secretsDir.resolve("keystore"), keystore.getPath());
+      assertEquals(17, keystore.getSize());
+      assertFalse(keystore.toString().contains("contents"));
+      assertFalse(keystore.isCached());
+      assertEquals("keystore contents", keystore.getValue());
+      assertTrue(keystore.isCached());
+      keystore.evict();
+      assertFalse(keystore.isCached());
+      assertEquals("keystore contents", keystore.readValue());
+      assertFalse(keystore.isCached());
+      
+      // The JSON representation of the parameters keeps the handle, so that sections can be bound again
+      ObjectNode tree = ((Params4JSpi) p4j).getJsonMapper().convertValue(dp, ObjectNode.class);
+      assertEquals(keystore, ((Params4JSpi) p4j).getJsonMapper().treeToValue(tree, DummySecretParameters.class).getKeystore());
+      assertFalse(((Params4JSpi) p4j).getJsonMapper().writeValueAsString(dp).contains("contents"));
+    }
+    
+    // The String deserializer is only replaced when a lazy gatherer is configured
+    Params4J<DummySecretParameters> eager = new Params4JFactoryImpl<DummySecretParameters>()
+            .withConstructor(() -> new DummySecretParameters())
+            .withSecretsGatherer(secretsDir, 100, 100, 4, StandardCharsets.UTF_8)
+            .create();
+    assertFalse(((Params4JSpi) eager).getJsonMapper().getRegisteredModuleIds().contains(new SecretHandleModule().getTypeId()));
+    Params4J<DummySecretParameters> lazy = new Params4JFactoryImpl<DummySecretParameters>()
+            .withConstructor(() -> new DummySecretParameters())
+            .withLazySecretsGatherer(secretsDir, 100, 100, 4, StandardCharsets.UTF_8)
+            .create();
+    assertTrue(((Params4JSpi) lazy).getJsonMapper().getRegisteredModuleIds().contains(new SecretHandleModule().getTypeId()));
+    
+    SecretsGatherer<DummySecretParameters> gatherer = new SecretsGatherer<>(secretsDir, 100, 100, 4, StandardCharsets.UTF_8, 1, true);
+    Params4JSpi spi = (Params4JSpi) Params4J.<DummySecretParameters>factory().withConstructor(() -> new DummySecretParameters()).create();
+    ObjectNode before = gatherer.gatherOverlay(spi);
+    Files.writeString(secretsDir.resolve("keystore"), "new keystore contents");
+    ObjectNode after = gatherer.gatherOverlay(spi, before, Collections.singleton(secretsDir.resolve("keystore")));
+    assertFalse(before.equals(after));
+    assertEquals(before.get("child"), after.get("child"));
+    SecretHandle handle = (SecretHandle) ((POJONode) after.get("keystore")).getPojo();
+    assertEquals("new keystore contents", handle.getValue());
+    
+    // Files that grow beyond the limit are not read
+    Files.writeString(secretsDir.resolve("keystore"), "x".repeat(200));
+    assertThrows(IOException.class, () -> handle.readBytes());
+  }
+
   private void writeToFile(File file, String contents) throws IOException {
     try ( OutputStream stream = new FileOutputStream(file)) {
       stream.write(contents.getBytes(StandardCharsets.UTF_8));
@@ -129,4 +241,79 @@ public class SecretsGathererTest {
     assertEquals("new-pass", dp.getChild().getPassword());
 
   }
+
+  @Test
+  public void testGatherChangedSecrets() throws Exception {
+
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path secretsDir = Files.createTempDirectory(tempRoot.toPath(), "SecretsGathererTest");
+    copyDir(new File(Helpers.getResourcePath("/secrets")).toPath(), secretsDir.toString());
+
+    Params4JSpi spi = (Params4JSpi) Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .create();
+    SecretsGatherer<DummyParameters> gatherer = new SecretsGatherer<>(secretsDir, 100, 100, 4, StandardCharsets.UTF_8);
+    ObjectNode previous = gatherer.gatherOverlay(spi);
+    assertEquals("user", previous.get("child").get("username").textValue());
+
+    // A known secret is re-read on its own
+    Path username = secretsDir.resolve("child").resolve("username");
+    writeToFile(username.toFile(), "new-user");
+    ObjectNode updated = gatherer.gatherOverlay(spi, previous, Collections.singleton(username));
+    assertEquals("new-user", updated.get("child").get("username").textValue());
+    assertEquals("pass", updated.get("child").get("password").textValue());
+    assertEquals("user", previous.get("child").get("username").textValue());
+
+    // A new secret causes the whole hierarchy to be read
+    Path email = secretsDir.resolve("child").resolve("email");
+    writeToFile(email.toFile(), "user@example.com");
+    updated = gatherer.gatherOverlay(spi, updated, Collections.singleton(email));
+    assertEquals("user@example.com", updated.get("child").get("email").textValue());
+    assertEquals("new-user", updated.get("child").get("username").textValue());
+  }
+
+  @Test
+  public void testAtomicWriterSwap() throws Exception {
+
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path secretsDir = Files.createTempDirectory(tempRoot.toPath(), "SecretsGathererTest");
+    
+    // Lay the directory out the way the Kubernetes atomic writer does
+    Path firstGeneration = Files.createDirectory(secretsDir.resolve("..2026_01_01_00_00_00.000000001"));
+    Files.createDirectory(firstGeneration.resolve("child"));
+    writeToFile(firstGeneration.resolve("value").toFile(), "23");
+    writeToFile(firstGeneration.resolve("child").resolve("username").toFile(), "user");
+    Files.createSymbolicLink(secretsDir.resolve("..data"), firstGeneration.getFileName());
+    Files.createSymbolicLink(secretsDir.resolve("value"), Path.of("..data", "value"));
+    Files.createSymbolicLink(secretsDir.resolve("child"), Path.of("..data", "child"));
+
+    // The quiet period is much longer than the test waits, only an immediate delivery will be seen in time
+    Params4J<DummyParameters> p4j = new Params4JFactoryImpl<DummyParameters>()
+            .withConstructor(() -> new DummyParameters())
+            .withGatherer(new SecretsGatherer<>(secretsDir, 100, 100, 4, StandardCharsets.UTF_8))
+            .withDebouncePolicy(DebouncePolicy.builder().quietPeriod(Duration.ofSeconds(30)).maxWait(Duration.ofSeconds(60)).build())
+            .create();
+
+    DummyParameters dp = p4j.gatherParameters();
+    assertEquals(23, dp.getValue());
+    assertEquals("user", dp.getChild().getUsername());
+    
+    CompletableFuture<DummyParameters> changed = new CompletableFuture<>();
+    assertTrue(p4j.notifyOfChanges(changed::complete));
+
+    Path secondGeneration = Files.createDirectory(secretsDir.resolve("..2026_01_01_00_00_00.000000002"));
+    Files.createDirectory(secondGeneration.resolve("child"));
+    writeToFile(secondGeneration.resolve("value").toFile(), "29");
+    writeToFile(secondGeneration.resolve("child").resolve("username").toFile(), "new-user");
+    Path tmpLink = Files.createSymbolicLink(secretsDir.resolve("..data_tmp"), secondGeneration.getFileName());
+    Files.move(tmpLink, secretsDir.resolve("..data"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+    dp = changed.get(10, TimeUnit.SECONDS);
+    assertEquals(29, dp.getValue());
+    assertEquals("new-user", dp.getChild().getUsername());
+    Duration latency = ((Params4JImpl<DummyParameters>) p4j).getFileWatcher().getLastLatency();
+    assertTrue(latency.compareTo(Duration.ofSeconds(5)) < 0, "Latency was " + latency);
+  }
 }
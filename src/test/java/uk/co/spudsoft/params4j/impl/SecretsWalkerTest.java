@@ -12,6 +12,8 @@ import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,4 +53,54 @@ public class SecretsWalkerTest {
     assertThat(result.get("this").get("dir").get("structure").has("is"), is(false));
   }
   
+  @Test
+  public void testTreeHashWithoutReadingFiles() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    
+    Path root = new File(Helpers.getResourcePath("/secrets")).toPath();
+    
+    SecretsWalker reading = new SecretsWalker(root, mapper, 100, 100, StandardCharsets.UTF_8, null);
+    Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 4, reading);
+    
+    SecretsWalker hashing = new SecretsWalker(root, mapper, 100, 100, StandardCharsets.UTF_8, null, false);
+    Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 4, hashing);
+    
+    assertThat(hashing.getObjectNode().get("child").isEmpty(), is(true));
+    assertThat(hashing.getTreeHash(), equalTo(reading.getTreeHash()));
+  }
+  
+  @Test
+  public void testConcurrentReads() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path root = Files.createTempDirectory(tempRoot.toPath(), "SecretsWalkerTest");
+    for (int dir = 0; dir < 5; ++dir) {
+      Path dirPath = Files.createDirectories(root.resolve("dir" + dir));
+      for (int file = 0; file < 30; ++file) {
+        Files.writeString(dirPath.resolve("secret" + file), "value " + dir + "." + file);
+      }
+      Files.writeString(dirPath.resolve("toolong"), "x".repeat(200));
+    }
+    Files.writeString(root.resolve("value"), "top");
+    
+    SecretsWalker sequential = new SecretsWalker(root, mapper, 100, 120, StandardCharsets.UTF_8, null);
+    Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 4, sequential);
+    
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      SecretsWalker concurrent = new SecretsWalker(root, mapper, 100, 120, StandardCharsets.UTF_8, null, true, executor, 4);
+      Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 4, concurrent);
+      
+      // The same fields, in the same order
+      assertThat(concurrent.getObjectNode().toString(), equalTo(sequential.getObjectNode().toString()));
+      assertThat(concurrent.getTreeHash(), equalTo(sequential.getTreeHash()));
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(sequential.getObjectNode().get("dir0").get("secret7").textValue(), equalTo("value 0.7"));
+    assertThat(sequential.getObjectNode().get("dir0").has("toolong"), is(false));
+  }
+  
 }
@@ -11,6 +11,7 @@ import uk.co.spudsoft.params4j.Params4J;
 import uk.co.spudsoft.params4j.Params4JSpi;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
@@ -65,4 +66,19 @@ public class SystemPropertiesGathererTest {
     assertNull(dp.getCheck());
   }
   
+  @Test
+  public void testFingerprint() throws Exception {
+    Properties props = new Properties();
+    props.put("a", "b");
+    SystemPropertiesGatherer<DummyParameters> gatherer = new SystemPropertiesGatherer<>(props, "prefix.");
+    Object fingerprint = gatherer.getFingerprint();
+    assertEquals(fingerprint, gatherer.getFingerprint());
+    
+    // Same hash, different properties
+    props.clear();
+    props.put("b", "a");
+    assertEquals(fingerprint.hashCode(), gatherer.getFingerprint().hashCode());
+    assertNotEquals(fingerprint, gatherer.getFingerprint());
+  }
+  
 }
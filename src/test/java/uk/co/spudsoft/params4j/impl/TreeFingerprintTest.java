@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class TreeFingerprintTest {
+  
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  
+  private static TreeFingerprint fingerprint(String json) throws Exception {
+    return TreeFingerprint.of(MAPPER.readTree(json));
+  }
+  
+  @Test
+  public void testCanonical() throws Exception {
+    assertEquals(fingerprint("{\"a\":1,\"b\":{\"c\":[\"x\",true],\"d\":null}}"), fingerprint("{\"b\":{\"d\":null,\"c\":[\"x\",true]},\"a\":1}"));
+    assertEquals(TreeFingerprint.of(null), TreeFingerprint.of(MissingNode.getInstance()));
+  }
+  
+  @Test
+  public void testDifferences() throws Exception {
+    TreeFingerprint base = fingerprint("{\"a\":1,\"b\":[\"x\",\"y\"]}");
+    assertNotEquals(base, fingerprint("{\"a\":2,\"b\":[\"x\",\"y\"]}"));
+    assertNotEquals(base, fingerprint("{\"a\":\"1\",\"b\":[\"x\",\"y\"]}"));
+    assertNotEquals(base, fingerprint("{\"a\":1,\"b\":[\"y\",\"x\"]}"));
+    assertNotEquals(base, fingerprint("{\"a\":1,\"b\":[\"xy\"]}"));
+    assertNotEquals(base, fingerprint("{\"a\":1,\"b\":[\"x\",\"y\"],\"c\":null}"));
+    assertNotEquals(base, fingerprint("{\"A\":1,\"b\":[\"x\",\"y\"]}"));
+  }
+  
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2026 jtalbut
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package uk.co.spudsoft.params4j.impl;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import uk.co.spudsoft.params4j.DebouncePolicy;
+import uk.co.spudsoft.params4j.FileType;
+import uk.co.spudsoft.params4j.Params4J;
+import uk.co.spudsoft.params4j.WatchMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author jtalbut
+ */
+public class WatchHubTest {
+  
+  @Test
+  public void testDirectoriesAreRegisteredOnce() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path tempDir = Files.createTempDirectory(tempRoot.toPath(), "WatchHubTest");
+    
+    DebouncePolicy policy = DebouncePolicy.builder().quietPeriod(Duration.ofMillis(100)).maxWait(Duration.ofSeconds(1)).build();
+    CompletableFuture<Set<Path>> firstChanges = new CompletableFuture<>();
+    CompletableFuture<Set<Path>> secondChanges = new CompletableFuture<>();
+    FileWatcher first = new FileWatcher(firstChanges::complete, policy);
+    FileWatcher second = new FileWatcher(secondChanges::complete, policy);
+    
+    int before = WatchHub.getRegistrationCount(tempDir.getFileSystem());
+    first.watch(tempDir);
+    first.watch(tempDir);
+    second.watch(tempDir.toAbsolutePath());
+    assertEquals(before + 1, WatchHub.getRegistrationCount(tempDir.getFileSystem()));
+    assertTrue(first.start());
+    assertTrue(second.start());
+    
+    Files.writeString(tempDir.resolve("changed.yaml"), "value: 1");
+    
+    assertEquals(Set.of(tempDir.resolve("changed.yaml")), firstChanges.get(10, TimeUnit.SECONDS));
+    assertEquals(Set.of(tempDir.toAbsolutePath().resolve("changed.yaml")), secondChanges.get(10, TimeUnit.SECONDS));
+  }
+  
+  @Test
+  public void testSlowCallbackDoesNotDelayOthers() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path slowDir = Files.createTempDirectory(tempRoot.toPath(), "WatchHubTest");
+    Path fastDir = Files.createTempDirectory(tempRoot.toPath(), "WatchHubTest");
+    
+    DebouncePolicy policy = DebouncePolicy.builder().quietPeriod(Duration.ofMillis(100)).maxWait(Duration.ofSeconds(1)).build();
+    CountDownLatch slowEntered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> fastThread = new CompletableFuture<>();
+    FileWatcher slow = new FileWatcher(changed -> {
+      slowEntered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }, policy);
+    FileWatcher fast = new FileWatcher(changed -> fastThread.complete(Thread.currentThread().getName()), policy);
+    try {
+      slow.watch(slowDir);
+      fast.watch(fastDir);
+      assertTrue(slow.start());
+      assertTrue(fast.start());
+
+      Files.writeString(slowDir.resolve("changed.yaml"), "value: 1");
+      assertTrue(slowEntered.await(10, TimeUnit.SECONDS));
+      
+      // The slow callback is still running, but the other FileWatcher is unaffected and the scheduler thread is not used for callbacks
+      Files.writeString(fastDir.resolve("changed.yaml"), "value: 1");
+      assertNotEquals("Params4JDebounce", fastThread.get(10, TimeUnit.SECONDS));
+    } finally {
+      release.countDown();
+      slow.close();
+      fast.close();
+    }
+  }
+  
+  @Test
+  public void testIrrelevantChangesAreSuppressed() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path tempDir = Files.createTempDirectory(tempRoot.toPath(), "WatchHubTest");
+    
+    DebouncePolicy policy = DebouncePolicy.builder().quietPeriod(Duration.ofMillis(100)).maxWait(Duration.ofSeconds(1)).build();
+    CompletableFuture<Set<Path>> changes = new CompletableFuture<>();
+    FileWatcher watcher = new FileWatcher(changes::complete, policy);
+    watcher.watch(tempDir, path -> path.getFileName().toString().endsWith(".yaml"));
+    assertTrue(watcher.start());
+    
+    Files.writeString(tempDir.resolve("notes.bak"), "irrelevant");
+    long start = System.currentTimeMillis();
+    while (watcher.getSuppressedEventCount() == 0 && System.currentTimeMillis() - start < 10000) {
+      Thread.sleep(10);
+    }
+    assertTrue(watcher.getSuppressedEventCount() > 0);
+    
+    Files.writeString(tempDir.resolve("changed.yaml"), "value: 1");
+    assertEquals(Set.of(tempDir.resolve("changed.yaml")), changes.get(10, TimeUnit.SECONDS));
+  }
+  
+  @Test
+  public void testWatchBudget() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path tempDir = Files.createTempDirectory(tempRoot.toPath(), "WatchHubTest");
+    Path first = Files.createDirectory(tempDir.resolve("first"));
+    Path second = Files.createDirectory(tempDir.resolve("second"));
+    Path third = Files.createDirectory(tempDir.resolve("third"));
+    
+    int before = WatchHub.getRegistrationCount(tempDir.getFileSystem());
+    // The budget applies to all the directories registered in the JVM, which may include some left by other tests
+    FileWatcher watcher = new FileWatcher(changed -> {}, null, WatchMode.Auto, Duration.ofMillis(20), Duration.ofMillis(50), FileWatcher.getTotalWatchCount() + 2);
+    watcher.watch(first);
+    watcher.watch(second);
+    watcher.watch(third);
+    assertEquals(2, watcher.getWatchCount());
+    assertEquals(Set.of(third), watcher.getPolledPaths());
+    assertEquals(before + 2, WatchHub.getRegistrationCount(tempDir.getFileSystem()));
+    
+    // Unwatching releases the registration
+    watcher.unwatch(second);
+    assertEquals(1, watcher.getWatchCount());
+    assertEquals(before + 1, WatchHub.getRegistrationCount(tempDir.getFileSystem()));
+    
+    // Deleting a directory releases the registration
+    Files.delete(first);
+    long start = System.currentTimeMillis();
+    while (watcher.getWatchCount() > 0 && System.currentTimeMillis() - start < 10000) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, watcher.getWatchCount());
+    assertEquals(before, WatchHub.getRegistrationCount(tempDir.getFileSystem()));
+    
+    // Deleting a polled directory stops the polling
+    Files.delete(third);
+    start = System.currentTimeMillis();
+    while (!watcher.getPolledPaths().isEmpty() && System.currentTimeMillis() - start < 10000) {
+      Thread.sleep(10);
+    }
+    assertTrue(watcher.getPolledPaths().isEmpty());
+  }
+  
+  @Test
+  public void testWatchBudgetIsShared() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path tempDir = Files.createTempDirectory(tempRoot.toPath(), "WatchHubTest");
+    Path first = Files.createDirectory(tempDir.resolve("first"));
+    Path second = Files.createDirectory(tempDir.resolve("second"));
+    Path third = Files.createDirectory(tempDir.resolve("third"));
+    
+    int budget = FileWatcher.getTotalWatchCount() + 2;
+    FileWatcher one = new FileWatcher(changed -> {}, null, WatchMode.Auto, Duration.ofMillis(20), Duration.ofMillis(50), budget);
+    FileWatcher two = new FileWatcher(changed -> {}, null, WatchMode.Auto, Duration.ofMillis(20), Duration.ofMillis(50), budget);
+    try {
+      one.watch(first);
+      one.watch(second);
+      assertEquals(2, one.getWatchCount());
+      assertEquals(budget, FileWatcher.getTotalWatchCount());
+      
+      // The budget has been used by the other FileWatcher, but directories that it has registered can still be watched
+      two.watch(second);
+      two.watch(third);
+      assertEquals(1, two.getWatchCount());
+      assertEquals(Set.of(third), two.getPolledPaths());
+      assertEquals(budget, FileWatcher.getTotalWatchCount());
+      
+      // Releasing a registration makes room in the budget for the other FileWatcher
+      one.unwatch(first);
+      two.unwatch(third);
+      two.watch(third);
+      assertEquals(2, two.getWatchCount());
+      assertTrue(two.getPolledPaths().isEmpty());
+      assertEquals(budget, FileWatcher.getTotalWatchCount());
+    } finally {
+      one.close();
+      two.close();
+    }
+  }
+  
+  @Test
+  public void testCloseReleasesWatches() throws Exception {
+    File tempRoot = new File("target/temp");
+    tempRoot.mkdirs();
+    Path tempDir = Files.createTempDirectory(tempRoot.toPath(), "WatchHubTest");
+    Files.writeString(tempDir.resolve("params.yaml"), "value: 1");
+    
+    int before = WatchHub.getRegistrationCount(tempDir.getFileSystem());
+    AtomicInteger notifications = new AtomicInteger();
+    Params4J<DummyParameters> p4j = Params4J.<DummyParameters>factory()
+            .withConstructor(() -> new DummyParameters())
+            .withDirGatherer(tempDir.toFile(), FileType.Yaml)
+            .withDebouncePolicy(DebouncePolicy.builder().quietPeriod(Duration.ofMillis(50)).maxWait(Duration.ofSeconds(1)).build())
+            .create();
+    assertEquals(1, p4j.gatherParameters().getValue());
+    assertTrue(p4j.notifyOfChanges(p -> notifications.incrementAndGet()));
+    assertEquals(before + 1, WatchHub.getRegistrationCount(tempDir.getFileSystem()));
+    
+    p4j.close();
+    assertEquals(before, WatchHub.getRegistrationCount(tempDir.getFileSystem()));
+    if (before == 0) {
+      assertFalse(WatchHub.isActive(tempDir.getFileSystem()));
+    }
+    
+    // Changes are no longer monitored, but parameters can still be gathered
+    Files.writeString(tempDir.resolve("params.yaml"), "value: 2");
+    Thread.sleep(500);
+    assertEquals(0, notifications.get());
+    assertEquals(2, p4j.gatherParameters().getValue());
+    assertEquals(before, WatchHub.getRegistrationCount(tempDir.getFileSystem()));
+    p4j.close();
+  }
+  
+  @Test
+  public void testStartWithoutPaths() {
+    assertFalse(new FileWatcher(() -> {}).start());
+  }
+  
+}